@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.util.Objects;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+
+/**
+ * Distance between two locations that can be persisted. Unlike {@link DistanceEntity}, the distance is stored
+ * as an {@code int}, which makes the table smaller. Used in compact distance storage mode.
+ */
+@Entity
+class CompactDistanceEntity {
+
+    @EmbeddedId
+    private DistanceKey key;
+
+    private Integer distance;
+
+    protected CompactDistanceEntity() {
+        // for JPA
+    }
+
+    CompactDistanceEntity(DistanceKey key, long distance) {
+        this.key = Objects.requireNonNull(key);
+        if (distance > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Distance (" + distance + " ms) from " + key.getFromId()
+                    + " to " + key.getToId() + " is too long to be stored in compact mode (max "
+                    + Integer.MAX_VALUE + " ms).");
+        }
+        this.distance = (int) distance;
+    }
+
+    DistanceKey getKey() {
+        return key;
+    }
+
+    Integer getDistance() {
+        return distance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CompactDistanceEntity that = (CompactDistanceEntity) o;
+        return key.equals(that.key) &&
+                distance.equals(that.distance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, distance);
+    }
+}
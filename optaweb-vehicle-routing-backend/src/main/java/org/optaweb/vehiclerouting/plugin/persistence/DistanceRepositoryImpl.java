@@ -16,45 +16,187 @@
 
 package org.optaweb.vehiclerouting.plugin.persistence;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 
+import org.hibernate.jpa.QueryHints;
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.DistanceProperties;
 import org.optaweb.vehiclerouting.service.distance.DistanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Stores distances either in {@link DistanceEntity} or, in compact mode, in {@link CompactDistanceEntity}.
+ * Distances found in the other mode's table when they are read are moved to this mode's table.
+ */
 @ApplicationScoped
 class DistanceRepositoryImpl implements DistanceRepository {
 
+    private static final Logger logger = LoggerFactory.getLogger(DistanceRepositoryImpl.class);
+
+    /**
+     * Number of entities persisted before they are flushed and detached. Should be a multiple of
+     * {@code quarkus.hibernate-orm.jdbc.statement-batch-size} so that every flush sends full JDBC batches.
+     */
+    static final int FLUSH_SIZE = 1000;
+    /**
+     * Number of rows fetched from the database in one round trip when reading all distances.
+     */
+    static final int FETCH_SIZE = 10_000;
+
     private final DistanceCrudRepository distanceRepository;
+    private final CompactDistanceCrudRepository compactDistanceRepository;
+    private final boolean compact;
 
     @Inject
-    DistanceRepositoryImpl(DistanceCrudRepository distanceRepository) {
+    DistanceRepositoryImpl(
+            DistanceCrudRepository distanceRepository,
+            CompactDistanceCrudRepository compactDistanceRepository,
+            DistanceProperties distanceProperties) {
         this.distanceRepository = distanceRepository;
+        this.compactDistanceRepository = compactDistanceRepository;
+        this.compact = distanceProperties.isCompact();
     }
 
     @Override
     public void saveDistance(Location from, Location to, Distance distance) {
-        DistanceEntity distanceEntity = new DistanceEntity(new DistanceKey(from.id(), to.id()), distance.millis());
-        distanceRepository.persist(distanceEntity);
+        persist(from.id(), to.id(), distance);
+    }
+
+    @Override
+    public void saveDistances(
+            Location location,
+            Map<Location, Distance> distancesTo,
+            Map<Location, Distance> distancesFrom) {
+        List<Object> batch = new ArrayList<>(FLUSH_SIZE);
+        for (Map.Entry<Location, Distance> entry : distancesTo.entrySet()) {
+            batch.add(persist(location.id(), entry.getKey().id(), entry.getValue()));
+            flushIfFull(batch);
+        }
+        for (Map.Entry<Location, Distance> entry : distancesFrom.entrySet()) {
+            batch.add(persist(entry.getKey().id(), location.id(), entry.getValue()));
+            flushIfFull(batch);
+        }
+    }
+
+    private Object persist(long fromId, long toId, Distance distance) {
+        DistanceKey key = new DistanceKey(fromId, toId);
+        if (compact) {
+            CompactDistanceEntity entity = new CompactDistanceEntity(key, distance.millis());
+            compactDistanceRepository.persist(entity);
+            return entity;
+        }
+        DistanceEntity entity = new DistanceEntity(key, distance.millis());
+        distanceRepository.persist(entity);
+        return entity;
+    }
+
+    private void flushIfFull(List<Object> batch) {
+        if (batch.size() < FLUSH_SIZE) {
+            return;
+        }
+        // Send the pending inserts in JDBC batches and stop tracking the distances. Otherwise the persistence context
+        // grows with every distance saved in the transaction and each flush gets slower. Only the distances are
+        // detached. Other entities of the caller's transaction, such as new locations, stay managed.
+        EntityManager entityManager = distanceRepository.getEntityManager();
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
     }
 
     @Override
     public Optional<Distance> getDistance(Location from, Location to) {
-        return distanceRepository.findByIdOptional(new DistanceKey(from.id(), to.id()))
+        DistanceKey key = new DistanceKey(from.id(), to.id());
+        if (compact) {
+            return compactDistanceRepository.findByIdOptional(key)
+                    .map(CompactDistanceEntity::getDistance)
+                    .map(Distance::ofMillis);
+        }
+        return distanceRepository.findByIdOptional(key)
                 .map(DistanceEntity::getDistance)
                 .map(Distance::ofMillis);
     }
 
+    @Override
+    public long forEachDistance(DistanceConsumer consumer) {
+        long count = forEachDistance(compact, consumer);
+        if (count == 0 && otherModeCount() > 0) {
+            return migrate(consumer);
+        }
+        return count;
+    }
+
+    private long otherModeCount() {
+        return compact ? distanceRepository.count() : compactDistanceRepository.count();
+    }
+
+    /**
+     * Move distances saved with the other value of {@code app.distance.compact} to this mode's table, so that
+     * changing the property doesn't lose them. Fails if a distance is too long for compact mode.
+     *
+     * @param consumer receives each distance
+     * @return number of distances moved
+     */
+    private long migrate(DistanceConsumer consumer) {
+        logger.info("Moving distances to the {} distance table because app.distance.compact has changed.",
+                compact ? "compact" : "regular");
+        List<Object> batch = new ArrayList<>(FLUSH_SIZE);
+        long count = forEachDistance(!compact, (fromId, toId, millis) -> {
+            batch.add(persist(fromId, toId, Distance.ofMillis(millis)));
+            flushIfFull(batch);
+            consumer.accept(fromId, toId, millis);
+        });
+        if (compact) {
+            distanceRepository.deleteAll();
+        } else {
+            compactDistanceRepository.deleteAll();
+        }
+        logger.info("Moved {} distances.", count);
+        return count;
+    }
+
+    private long forEachDistance(boolean compactTable, DistanceConsumer consumer) {
+        // Select only the columns (not entities) so that nothing is added to the persistence context. The stream is
+        // backed by a forward-only cursor. Note that PostgreSQL only honors the fetch size inside a transaction.
+        String entityName = compactTable ? "CompactDistanceEntity" : "DistanceEntity";
+        try (Stream<Object[]> rows = distanceRepository.getEntityManager()
+                .createQuery("select d.key.fromId, d.key.toId, d.distance from " + entityName + " d", Object[].class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            long count = 0;
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                consumer.accept((Long) row[0], (Long) row[1], ((Number) row[2]).longValue());
+                count++;
+            }
+            return count;
+        }
+    }
+
     @Override
     public void deleteDistances(Location location) {
-        distanceRepository.deleteByFromIdOrToId(location.id());
+        if (compact) {
+            compactDistanceRepository.deleteByFromIdOrToId(location.id());
+        } else {
+            distanceRepository.deleteByFromIdOrToId(location.id());
+        }
     }
 
     @Override
     public void deleteAll() {
-        distanceRepository.deleteAll();
+        if (compact) {
+            compactDistanceRepository.deleteAll();
+        } else {
+            distanceRepository.deleteAll();
+        }
     }
 }
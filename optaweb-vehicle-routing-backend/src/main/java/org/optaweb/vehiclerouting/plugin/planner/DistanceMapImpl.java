@@ -24,6 +24,9 @@ import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 
 /**
  * Provides distances to {@link PlanningLocation}s by reading from a {@link DistanceMatrixRow}.
+ * Locations that carry a matrix {@link PlanningLocation#getIndex() index} are resolved with a plain array read.
+ * <p>
+ * The map is stateless, so it can be read concurrently by the solver thread and move threads.
  */
 public class DistanceMapImpl implements DistanceMap {
 
@@ -35,6 +38,9 @@ public class DistanceMapImpl implements DistanceMap {
 
     @Override
     public long distanceTo(PlanningLocation location) {
-        return distanceMatrixRow.distanceTo(location.getId()).millis();
+        int index = location.getIndex();
+        return index == PlanningLocation.NO_INDEX
+                ? distanceMatrixRow.millisTo(location.getId())
+                : distanceMatrixRow.millisToIndex(index);
     }
 }
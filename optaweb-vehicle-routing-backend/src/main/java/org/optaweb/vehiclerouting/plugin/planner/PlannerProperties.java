@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.arc.config.ConfigProperties;
+
+@ConfigProperties(prefix = "app.planner")
+public class PlannerProperties {
+
+    /**
+     * Minimum time between two publications of the best solution. New best solutions found in the meantime
+     * are coalesced and only the latest one is published.
+     */
+    private Duration publicationInterval = Duration.ofMillis(200);
+
+    /**
+     * How many nearest visits the nearby selection of local search moves considers. Overrides
+     * {@code parabolicDistributionSizeMaximum} in the solver config.
+     */
+    private Optional<Integer> nearbyDistributionSizeMaximum = Optional.empty();
+
+    /**
+     * Number of threads used to evaluate moves in parallel ({@code NONE}, {@code AUTO} or a number).
+     * Overrides {@code moveThreadCount} in the solver config.
+     */
+    private Optional<String> moveThreadCount = Optional.empty();
+
+    /**
+     * How long problem fact changes (added or removed visits and vehicles) are accumulated before they're submitted
+     * to the solver together. The solver restarts once per batch instead of once per change. Zero disables batching.
+     */
+    private Duration changeBatchWindow = Duration.ofMillis(100);
+
+    /**
+     * How the score is calculated. Overrides the score director in the solver config.
+     */
+    private ScoreCalculation scoreCalculation = ScoreCalculation.CONSTRAINT_STREAMS;
+
+    /**
+     * Number of sectors around the depot that are optimized in parallel by a partitioned search phase before
+     * the local search phase. Partitioned search is disabled if not set.
+     */
+    private Optional<Integer> partitionCount = Optional.empty();
+
+    /**
+     * Minimum number of visits in a partition. Fewer partitions are created if there aren't enough visits.
+     */
+    private int partitionMinimumVisitCount = 100;
+
+    /**
+     * How long the partitioned search phase runs before the local search phase takes over.
+     */
+    private Duration partitionSpentLimit = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of partitions solved at the same time ({@code AUTO}, {@code UNLIMITED} or a number).
+     */
+    private Optional<String> partitionThreadLimit = Optional.empty();
+
+    public Duration getPublicationInterval() {
+        return publicationInterval;
+    }
+
+    public void setPublicationInterval(Duration publicationInterval) {
+        this.publicationInterval = publicationInterval;
+    }
+
+    public Duration getChangeBatchWindow() {
+        return changeBatchWindow;
+    }
+
+    public void setChangeBatchWindow(Duration changeBatchWindow) {
+        this.changeBatchWindow = changeBatchWindow;
+    }
+
+    public ScoreCalculation getScoreCalculation() {
+        return scoreCalculation;
+    }
+
+    public void setScoreCalculation(ScoreCalculation scoreCalculation) {
+        this.scoreCalculation = scoreCalculation;
+    }
+
+    public Optional<Integer> getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(Optional<Integer> partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    public int getPartitionMinimumVisitCount() {
+        return partitionMinimumVisitCount;
+    }
+
+    public void setPartitionMinimumVisitCount(int partitionMinimumVisitCount) {
+        this.partitionMinimumVisitCount = partitionMinimumVisitCount;
+    }
+
+    public Duration getPartitionSpentLimit() {
+        return partitionSpentLimit;
+    }
+
+    public void setPartitionSpentLimit(Duration partitionSpentLimit) {
+        this.partitionSpentLimit = partitionSpentLimit;
+    }
+
+    public Optional<String> getPartitionThreadLimit() {
+        return partitionThreadLimit;
+    }
+
+    public void setPartitionThreadLimit(Optional<String> partitionThreadLimit) {
+        this.partitionThreadLimit = partitionThreadLimit;
+    }
+
+    public Optional<Integer> getNearbyDistributionSizeMaximum() {
+        return nearbyDistributionSizeMaximum;
+    }
+
+    public void setNearbyDistributionSizeMaximum(Optional<Integer> nearbyDistributionSizeMaximum) {
+        this.nearbyDistributionSizeMaximum = nearbyDistributionSizeMaximum;
+    }
+
+    public Optional<String> getMoveThreadCount() {
+        return moveThreadCount;
+    }
+
+    public void setMoveThreadCount(Optional<String> moveThreadCount) {
+        this.moveThreadCount = moveThreadCount;
+    }
+
+    public enum ScoreCalculation {
+        /**
+         * {@link VehicleRoutingConstraintProvider}.
+         */
+        CONSTRAINT_STREAMS,
+        /**
+         * {@link VehicleRoutingIncrementalScoreCalculator}.
+         */
+        INCREMENTAL
+    }
+}
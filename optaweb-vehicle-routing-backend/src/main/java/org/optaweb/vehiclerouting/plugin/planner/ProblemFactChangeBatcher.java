@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.optaplanner.core.api.solver.ProblemFactChange;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Accumulates problem fact changes for a short window and submits them to the solver together.
+ * <p>
+ * The solver restarts its phase and recalculates the score after each batch of problem fact changes, so submitting
+ * a burst of changes at once avoids a restart per change. The window starts with the first change of a batch, so no
+ * change waits longer than the window. With a zero window, each change is submitted immediately.
+ */
+class ProblemFactChangeBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProblemFactChangeBatcher.class);
+
+    private final Solver<VehicleRoutingSolution> solver;
+    private final long windowNanos;
+    private final ScheduledExecutorService flushExecutor;
+
+    // Guarded by this.
+    private List<ProblemFactChange<VehicleRoutingSolution>> pendingChanges = new ArrayList<>();
+    private long submittedChanges;
+    private long submittedBatches;
+    private int largestBatch;
+
+    ProblemFactChangeBatcher(Solver<VehicleRoutingSolution> solver, Duration window) {
+        this.solver = solver;
+        this.windowNanos = window.toNanos();
+        this.flushExecutor = windowNanos > 0
+                ? Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactoryBuilder().setNameFormat("problem-fact-changes").setDaemon(true).build())
+                : null;
+    }
+
+    /**
+     * Submit the change when the current window closes.
+     *
+     * @param change problem fact change
+     */
+    synchronized void add(ProblemFactChange<VehicleRoutingSolution> change) {
+        pendingChanges.add(change);
+        if (flushExecutor == null) {
+            flush();
+        } else if (pendingChanges.size() == 1) {
+            flushExecutor.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Submit all pending changes to the solver now.
+     */
+    synchronized void flush() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<ProblemFactChange<VehicleRoutingSolution>> batch = pendingChanges;
+        pendingChanges = new ArrayList<>();
+        solver.addProblemFactChanges(batch);
+        submittedChanges += batch.size();
+        submittedBatches++;
+        largestBatch = Math.max(largestBatch, batch.size());
+        logger.debug(
+                "Submitted {} problem fact changes in one batch (total: {} changes in {} batches,"
+                        + " {} restarts avoided, largest batch: {})",
+                batch.size(), submittedChanges, submittedBatches, submittedChanges - submittedBatches, largestBatch);
+    }
+
+    /**
+     * Drop pending changes. Used when the solver stops because it will be restarted with a new problem that already
+     * reflects the changes.
+     */
+    synchronized void discard() {
+        if (!pendingChanges.isEmpty()) {
+            logger.debug("Discarding {} problem fact changes", pendingChanges.size());
+            pendingChanges = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Number of problem fact changes submitted to the solver so far.
+     *
+     * @return submitted changes
+     */
+    synchronized long submittedChanges() {
+        return submittedChanges;
+    }
+
+    /**
+     * Number of batches submitted to the solver so far. Each batch causes one solver restart.
+     *
+     * @return submitted batches
+     */
+    synchronized long submittedBatches() {
+        return submittedBatches;
+    }
+
+    void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+    }
+}
@@ -17,11 +17,18 @@
 package org.optaweb.vehiclerouting.plugin.planner;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
@@ -36,9 +43,16 @@ import org.optaweb.vehiclerouting.service.route.ShallowRoute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * Converts planning solution to a {@link RouteChangedEvent} and publishes it so that it can be processed by other
  * components that listen for this type of event.
+ * <p>
+ * The conversion happens on the caller's thread (usually the solver thread) and is cheap because the event only
+ * holds IDs. The event is then fired on a dedicated publisher thread, so the caller doesn't wait for the listeners
+ * (route tracking, persistence, pushing the update to clients). Events that arrive faster than the configured
+ * publication interval are coalesced: only the latest one is fired.
  */
 @ApplicationScoped
 class RouteChangedEventPublisher {
@@ -46,14 +60,22 @@ class RouteChangedEventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(RouteChangedEventPublisher.class);
 
     private final Event<RouteChangedEvent> eventPublisher;
+    private final long publicationIntervalNanos;
+    private final ScheduledExecutorService publisherExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("route-publisher").setDaemon(true).build());
+    private final AtomicReference<RouteChangedEvent> pendingEvent = new AtomicReference<>();
+    private volatile long lastPublicationNanos;
 
     @Inject
-    RouteChangedEventPublisher(Event<RouteChangedEvent> eventPublisher) {
+    RouteChangedEventPublisher(Event<RouteChangedEvent> eventPublisher, PlannerProperties plannerProperties) {
         this.eventPublisher = eventPublisher;
+        this.publicationIntervalNanos = plannerProperties.getPublicationInterval().toNanos();
+        this.lastPublicationNanos = System.nanoTime() - publicationIntervalNanos;
     }
 
     /**
-     * Publish solution as a {@link RouteChangedEvent}.
+     * Publish solution as a {@link RouteChangedEvent}. The event is fired asynchronously. If another event is still
+     * waiting to be fired, it is replaced by this one.
      *
      * @param solution solution
      */
@@ -67,7 +89,31 @@ class RouteChangedEventPublisher {
                 event.distance(),
                 solution.getScore());
         logger.debug("Routes: {}", event.routes());
-        eventPublisher.fire(event);
+        if (pendingEvent.getAndSet(event) == null) {
+            // Nothing was pending so schedule a publication. Otherwise, the scheduled publication fires this event.
+            long delay = lastPublicationNanos + publicationIntervalNanos - System.nanoTime();
+            publisherExecutor.schedule(this::firePendingEvent, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void firePendingEvent() {
+        // Set before taking the event. Otherwise, an event published in between would be scheduled according to
+        // the previous publication and fired right after this one.
+        lastPublicationNanos = System.nanoTime();
+        RouteChangedEvent event = pendingEvent.getAndSet(null);
+        if (event == null) {
+            return;
+        }
+        try {
+            eventPublisher.fire(event);
+        } catch (RuntimeException e) {
+            logger.error("Failed to publish a new routing plan", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publisherExecutor.shutdownNow();
     }
 
     /**
@@ -106,6 +152,9 @@ class RouteChangedEventPublisher {
         if (solution.getDepotList().isEmpty()) {
             return Collections.emptyList();
         }
+        Set<Long> visitIds = solution.getVisitList().stream()
+                .map(PlanningVisit::getId)
+                .collect(toSet());
         ArrayList<ShallowRoute> routes = new ArrayList<>();
         for (PlanningVehicle vehicle : solution.getVehicleList()) {
             PlanningDepot depot = vehicle.getDepot();
@@ -115,7 +164,7 @@ class RouteChangedEventPublisher {
             }
             List<Long> visits = new ArrayList<>();
             for (PlanningVisit visit : vehicle.getFutureVisits()) {
-                if (!solution.getVisitList().contains(visit)) {
+                if (!visitIds.contains(visit.getId())) {
                     throw new IllegalArgumentException("Visit (" + visit + ") doesn't exist");
                 }
                 visits.add(visit.getLocation().getId());
@@ -16,6 +16,13 @@
 
 package org.optaweb.vehiclerouting.plugin.planner;
 
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -24,10 +31,25 @@ import javax.enterprise.inject.Produces;
 
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.heuristic.selector.common.nearby.NearbySelectionConfig;
+import org.optaplanner.core.config.heuristic.selector.entity.EntitySelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.SwapMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.value.ValueSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.plugin.planner.partition.DepotAngleSolutionPartitioner;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Configuration bean that creates {@link RouteOptimizerImpl route optimizer}'s dependencies.
@@ -35,20 +57,114 @@ import com.google.common.util.concurrent.MoreExecutors;
 @Dependent
 class RouteOptimizerConfig {
 
-    private final SolverFactory<VehicleRoutingSolution> solverFactory;
+    private final SolverConfig solverConfig;
+    private final PlannerProperties plannerProperties;
 
-    RouteOptimizerConfig(SolverFactory<VehicleRoutingSolution> solverFactory) {
-        this.solverFactory = solverFactory;
+    RouteOptimizerConfig(SolverConfig solverConfig, PlannerProperties plannerProperties) {
+        this.solverConfig = solverConfig;
+        this.plannerProperties = plannerProperties;
     }
 
     @Produces
     Solver<VehicleRoutingSolution> solver() {
+        SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory.create(customize(solverConfig));
         return solverFactory.buildSolver();
     }
 
+    /**
+     * Apply application properties to a copy of the solver configuration read from the solver config XML.
+     *
+     * @param solverConfig solver configuration
+     * @return customized solver configuration
+     */
+    private SolverConfig customize(SolverConfig solverConfig) {
+        SolverConfig customized = new SolverConfig(solverConfig);
+        plannerProperties.getMoveThreadCount().ifPresent(customized::setMoveThreadCount);
+        if (plannerProperties.getScoreCalculation() == PlannerProperties.ScoreCalculation.INCREMENTAL) {
+            // Keeps the other score director settings, such as the initializing score trend.
+            ScoreDirectorFactoryConfig scoreConfig = customized.getScoreDirectorFactoryConfig().copyConfig();
+            scoreConfig.setConstraintProviderClass(null);
+            scoreConfig.setIncrementalScoreCalculatorClass(VehicleRoutingIncrementalScoreCalculator.class);
+            customized.setScoreDirectorFactoryConfig(scoreConfig);
+        }
+        plannerProperties.getNearbyDistributionSizeMaximum().ifPresent(
+                sizeMaximum -> nearbySelectionConfigs(customized).forEach(
+                        nearbySelectionConfig -> nearbySelectionConfig.setParabolicDistributionSizeMaximum(sizeMaximum)));
+        // Must be the last step so that the partitions' local search includes the changes above.
+        plannerProperties.getPartitionCount()
+                .filter(partitionCount -> partitionCount > 1)
+                .ifPresent(partitionCount -> addPartitionedSearchPhase(customized, partitionCount));
+        return customized;
+    }
+
+    /**
+     * Insert a partitioned search phase in front of the local search phase. Each partition is optimized
+     * by a copy of the local search phase.
+     *
+     * @param solverConfig solver configuration
+     * @param partitionCount number of partitions
+     */
+    private void addPartitionedSearchPhase(SolverConfig solverConfig, int partitionCount) {
+        List<PhaseConfig> phaseConfigs = new ArrayList<>(solverConfig.getPhaseConfigList());
+        for (int i = 0; i < phaseConfigs.size(); i++) {
+            if (phaseConfigs.get(i) instanceof LocalSearchPhaseConfig) {
+                Map<String, String> partitionerProperties = new HashMap<>();
+                partitionerProperties.put("partCount", Integer.toString(partitionCount));
+                partitionerProperties.put("minimumVisitCount",
+                        Integer.toString(plannerProperties.getPartitionMinimumVisitCount()));
+                PartitionedSearchPhaseConfig partitionConfig = new PartitionedSearchPhaseConfig();
+                partitionConfig.setSolutionPartitionerClass(DepotAngleSolutionPartitioner.class);
+                partitionConfig.setSolutionPartitionerCustomProperties(partitionerProperties);
+                plannerProperties.getPartitionThreadLimit().ifPresent(partitionConfig::setRunnablePartThreadLimit);
+                LocalSearchPhaseConfig localSearchPhaseConfig = (LocalSearchPhaseConfig) phaseConfigs.get(i);
+                partitionConfig.setPhaseConfigList(singletonList(localSearchPhaseConfig.copyConfig()));
+                partitionConfig.setTerminationConfig(
+                        new TerminationConfig().withSpentLimit(plannerProperties.getPartitionSpentLimit()));
+                phaseConfigs.add(i, partitionConfig);
+                solverConfig.setPhaseConfigList(phaseConfigs);
+                return;
+            }
+        }
+        throw new IllegalStateException("Partitioned search requires a local search phase in the solver config.");
+    }
+
+    private static List<NearbySelectionConfig> nearbySelectionConfigs(SolverConfig solverConfig) {
+        List<NearbySelectionConfig> nearbySelectionConfigs = new ArrayList<>();
+        for (PhaseConfig<?> phaseConfig : solverConfig.getPhaseConfigList()) {
+            if (phaseConfig instanceof LocalSearchPhaseConfig) {
+                MoveSelectorConfig<?> moveSelectorConfig = ((LocalSearchPhaseConfig) phaseConfig).getMoveSelectorConfig();
+                if (moveSelectorConfig instanceof UnionMoveSelectorConfig) {
+                    for (MoveSelectorConfig<?> childConfig : ((UnionMoveSelectorConfig) moveSelectorConfig)
+                            .getMoveSelectorConfigList()) {
+                        nearbySelectionConfig(childConfig).ifPresent(nearbySelectionConfigs::add);
+                    }
+                }
+            }
+        }
+        return nearbySelectionConfigs;
+    }
+
+    private static Optional<NearbySelectionConfig> nearbySelectionConfig(MoveSelectorConfig<?> moveSelectorConfig) {
+        if (moveSelectorConfig instanceof ChangeMoveSelectorConfig) {
+            return nearbySelectionConfig(((ChangeMoveSelectorConfig) moveSelectorConfig).getValueSelectorConfig());
+        }
+        if (moveSelectorConfig instanceof SwapMoveSelectorConfig) {
+            EntitySelectorConfig secondaryEntitySelectorConfig =
+                    ((SwapMoveSelectorConfig) moveSelectorConfig).getSecondaryEntitySelectorConfig();
+            return Optional.ofNullable(secondaryEntitySelectorConfig).map(EntitySelectorConfig::getNearbySelectionConfig);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<NearbySelectionConfig> nearbySelectionConfig(ValueSelectorConfig valueSelectorConfig) {
+        return Optional.ofNullable(valueSelectorConfig).map(ValueSelectorConfig::getNearbySelectionConfig);
+    }
+
     @Produces
     ListeningExecutorService executor() {
-        ExecutorService executorService = Executors.newFixedThreadPool(1);
+        // Runs the solver. Move threads (if enabled) are started by the solver itself.
+        ExecutorService executorService = Executors.newFixedThreadPool(1,
+                new ThreadFactoryBuilder().setNameFormat("solver").setDaemon(true).build());
         return MoreExecutors.listeningDecorator(executorService);
     }
 }
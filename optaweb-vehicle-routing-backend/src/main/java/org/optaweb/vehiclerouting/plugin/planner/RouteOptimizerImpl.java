@@ -16,8 +16,12 @@
 
 package org.optaweb.vehiclerouting.plugin.planner;
 
+import static java.util.stream.Collectors.toList;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -31,10 +35,14 @@ import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.RouteSnapshot;
 import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 import org.optaweb.vehiclerouting.service.location.LocationPlanner;
 import org.optaweb.vehiclerouting.service.vehicle.VehiclePlanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Accumulates vehicles, depots and visits until there's enough data to start the optimization.
@@ -44,6 +52,8 @@ import org.optaweb.vehiclerouting.service.vehicle.VehiclePlanner;
 @ApplicationScoped
 class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
 
+    private static final Logger logger = LoggerFactory.getLogger(RouteOptimizerImpl.class);
+
     private final SolverManager solverManager;
     private final RouteChangedEventPublisher routeChangedEventPublisher;
 
@@ -61,6 +71,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
     public void addLocation(Location domainLocation, DistanceMatrixRow distanceMatrixRow) {
         PlanningLocation location = PlanningLocationFactory.fromDomain(
                 domainLocation,
+                distanceMatrixRow.index(),
                 new DistanceMapImpl(distanceMatrixRow));
         // Unfortunately can't start solver with an empty solution (see https://issues.redhat.com/browse/PLANNER-776)
         if (depot == null) {
@@ -72,7 +83,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
             if (vehicles.isEmpty()) {
                 publishSolution();
             } else if (visits.size() == 1) {
-                solverManager.startSolver(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
+                solverManager.startSolver(initialSolution());
             } else {
                 solverManager.addVisit(visit);
             }
@@ -80,7 +91,41 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
     }
 
     @Override
-    public void removeLocation(Location domainLocation) {
+    public void addLocations(List<Location> domainLocations, List<DistanceMatrixRow> distanceMatrixRows) {
+        if (domainLocations.size() != distanceMatrixRows.size()) {
+            throw new IllegalArgumentException("Got " + domainLocations.size() + " locations but "
+                    + distanceMatrixRows.size() + " distance matrix rows");
+        }
+        if (domainLocations.isEmpty()) {
+            return;
+        }
+        List<PlanningVisit> newVisits = new ArrayList<>(domainLocations.size());
+        for (int i = 0; i < domainLocations.size(); i++) {
+            DistanceMatrixRow distanceMatrixRow = distanceMatrixRows.get(i);
+            PlanningLocation location = PlanningLocationFactory.fromDomain(
+                    domainLocations.get(i),
+                    distanceMatrixRow.index(),
+                    new DistanceMapImpl(distanceMatrixRow));
+            if (depot == null) {
+                depot = new PlanningDepot(location);
+            } else {
+                newVisits.add(PlanningVisitFactory.fromLocation(location));
+            }
+        }
+        boolean solverIsRunning = !vehicles.isEmpty() && !visits.isEmpty();
+        visits.addAll(newVisits);
+        if (vehicles.isEmpty() || visits.isEmpty()) {
+            publishSolution();
+        } else if (!solverIsRunning) {
+            solverManager.startSolver(initialSolution());
+        } else {
+            // A single problem fact change for the whole batch.
+            solverManager.addVisits(newVisits);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> removeLocation(Location domainLocation) {
         if (visits.isEmpty()) {
             if (depot == null) {
                 throw new IllegalArgumentException(
@@ -91,6 +136,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
             }
             depot = null;
             publishSolution();
+            return CompletableFuture.completedFuture(null);
         } else {
             if (depot.getId() == domainLocation.id()) {
                 throw new IllegalStateException("You can only remove depot if there are no visits");
@@ -98,14 +144,17 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
             if (!visits.removeIf(item -> item.getId() == domainLocation.id())) {
                 throw new IllegalArgumentException("Cannot remove " + domainLocation + " because it doesn't exist");
             }
+            solverManager.forgetVisit(domainLocation.id());
             if (vehicles.isEmpty()) { // solver is not running
                 publishSolution();
+                return CompletableFuture.completedFuture(null);
             } else if (visits.isEmpty()) { // solver is running
                 solverManager.stopSolver();
                 publishSolution();
+                return CompletableFuture.completedFuture(null);
             } else {
                 // TODO maybe allow removing location by ID (only require the necessary information)
-                solverManager.removeVisit(
+                return solverManager.removeVisit(
                         PlanningVisitFactory.fromLocation(PlanningLocationFactory.fromDomain(domainLocation)));
             }
         }
@@ -119,7 +168,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
         if (visits.isEmpty()) {
             publishSolution();
         } else if (vehicles.size() == 1) {
-            solverManager.startSolver(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
+            solverManager.startSolver(initialSolution());
         } else {
             solverManager.addVehicle(vehicle);
         }
@@ -130,6 +179,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
         if (!vehicles.removeIf(vehicle -> vehicle.getId() == domainVehicle.id())) {
             throw new IllegalArgumentException("Cannot remove " + domainVehicle + " because it doesn't exist");
         }
+        solverManager.forgetVehicle(domainVehicle.id());
         if (visits.isEmpty()) { // solver is not running
             publishSolution();
         } else if (vehicles.isEmpty()) { // solver is running
@@ -158,6 +208,7 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
     @Override
     public void removeAllLocations() {
         solverManager.stopSolver();
+        solverManager.forgetRoutes();
         depot = null;
         visits.clear();
         publishSolution();
@@ -166,10 +217,35 @@ class RouteOptimizerImpl implements LocationPlanner, VehiclePlanner {
     @Override
     public void removeAllVehicles() {
         solverManager.stopSolver();
+        // The visits stay, so their routes can be given to new vehicles.
+        vehicles.forEach(vehicle -> solverManager.forgetVehicle(vehicle.getId()));
         vehicles.clear();
         publishSolution();
     }
 
+    /**
+     * Create a solution from copies of the vehicles and visits. The solver works directly on the solution it is given,
+     * so copying keeps the solver's working entities separate from the ones kept (and modified) here.
+     * <p>
+     * The {@link SolverManager#lastRoutes() last routes} are restored for vehicles and visits that still exist,
+     * so that the construction heuristic only has to insert the visits that are new.
+     *
+     * @return new solution with as many visits initialized as possible
+     */
+    private VehicleRoutingSolution initialSolution() {
+        VehicleRoutingSolution solution = SolutionFactory.solutionFromVisits(
+                vehicles.stream().map(PlanningVehicleFactory::copyOf).collect(toList()),
+                depot,
+                visits.stream().map(PlanningVisitFactory::copyOf).collect(toList()));
+        RouteSnapshot lastRoutes = solverManager.lastRoutes();
+        if (!lastRoutes.isEmpty()) {
+            int initializedVisitCount = SolutionFactory.initializeFromRoutes(solution, lastRoutes);
+            logger.info("Starting solver with {} of {} visits routed as in the last best solution.",
+                    initializedVisitCount, solution.getVisitList().size());
+        }
+        return solution;
+    }
+
     private void publishSolution() {
         routeChangedEventPublisher.publishSolution(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
     }
@@ -16,9 +16,15 @@
 
 package org.optaweb.vehiclerouting.plugin.planner;
 
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.enterprise.inject.Default;
@@ -29,11 +35,13 @@ import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
 import org.optaplanner.core.api.solver.event.SolverEventListener;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVisit;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVisits;
 import org.optaweb.vehiclerouting.plugin.planner.change.ChangeVehicleCapacity;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVisit;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.RouteSnapshot;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.slf4j.Logger;
@@ -50,10 +58,12 @@ import com.google.common.util.concurrent.MoreExecutors;
  * <ul>
  * <li>Starts solver by running {@link Solver#solve(Object problem)} in a thread that's not the caller's thread.</li>
  * <li>Stops the solver (synchronously).</li>
- * <li>Adds problem fact changes to the solver.</li>
+ * <li>Adds problem fact changes to the solver. Changes arriving in a burst are submitted together
+ * (see {@link ProblemFactChangeBatcher}).</li>
  * <li>Propagates any exception that happens in {@code Solver.solver()} (in a different thread) to the thread that
  * interacts with {@code SolverManager}.</li>
  * <li>Listens for best solution changes and publishes new best solutions via {@link RouteChangedEventPublisher}.</li>
+ * <li>Remembers the routes of the last best solution so that the next solver can start from them.</li>
  * </ul>
  */
 @ApplicationScoped
@@ -66,6 +76,12 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
     private final ListeningExecutorService executor;
     private final RouteChangedEventPublisher routeChangedEventPublisher;
     private final Event<ErrorEvent> errorEvent;
+    private final ProblemFactChangeBatcher problemFactChanges;
+    // Removals that the solver hasn't processed yet.
+    private final Queue<CompletableFuture<Void>> pendingRemovals = new ConcurrentLinkedQueue<>();
+
+    // Kept by ID only, so that it survives solver restarts without keeping the solver's entities alive.
+    private final AtomicReference<RouteSnapshot> lastRoutes = new AtomicReference<>(RouteSnapshot.EMPTY);
 
     private ListenableFuture<VehicleRoutingSolution> solverFuture;
 
@@ -74,11 +90,13 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
             Solver<VehicleRoutingSolution> solver,
             ListeningExecutorService executor,
             RouteChangedEventPublisher routeChangedEventPublisher,
-            Event<ErrorEvent> errorEvent) {
+            Event<ErrorEvent> errorEvent,
+            PlannerProperties plannerProperties) {
         this.solver = solver;
         this.executor = executor;
         this.routeChangedEventPublisher = routeChangedEventPublisher;
         this.errorEvent = errorEvent;
+        this.problemFactChanges = new ProblemFactChangeBatcher(solver, plannerProperties.getChangeBatchWindow());
         this.solver.addEventListener(this);
     }
 
@@ -94,7 +112,10 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
         // TODO Race condition, if a servlet thread deletes that location in the middle of this method happening
         //      on the solver thread. Make sure that location is still in the repository.
         //      Maybe repair the solution OR ignore if it's inconsistent (log a WARNING).
-        routeChangedEventPublisher.publishSolution(bestSolutionChangedEvent.getNewBestSolution()); // TODO @Async
+        VehicleRoutingSolution bestSolution = bestSolutionChangedEvent.getNewBestSolution();
+        lastRoutes.set(RouteSnapshot.of(bestSolution));
+        // Only takes a cheap snapshot of the solution. Listeners are notified on the route publisher's thread.
+        routeChangedEventPublisher.publishSolution(bestSolution);
     }
 
     void startSolver(VehicleRoutingSolution solution) {
@@ -110,6 +131,8 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
                         // Solver in daemon mode can't return from solve() unless it has been terminated early
                         // (see #stopSolver()).
                         // So this case is only possible when an exception is thrown during solver.solve().
+                        // The solver won't process the pending removals but it doesn't read the removed visits either.
+                        completePendingRemovals();
                         try {
                             solverFuture.get();
                             logger.error("The solver has stopped without being terminated early so at this point"
@@ -133,16 +156,26 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
 
     void stopSolver() {
         if (solverFuture != null) {
+            // The solver will be restarted with a problem that already includes the pending changes.
+            problemFactChanges.discard();
             // TODO what happens if solver hasn't started yet (solve() is called asynchronously)
             solver.terminateEarly();
             // make sure solver has terminated and propagate exceptions
             try {
                 solverFuture.get();
                 solverFuture = null;
+                // The solver no longer reads any removed visits, even those whose removal it hasn't processed.
+                completePendingRemovals();
+                long changes = problemFactChanges.submittedChanges();
+                long batches = problemFactChanges.submittedBatches();
+                logger.info("Solver stopped. {} problem fact changes have been submitted in {} batches so far"
+                        + " ({} restarts avoided).", changes, batches, changes - batches);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw new RuntimeException("Failed to stop solver", e);
             } catch (ExecutionException e) {
+                // The solver has crashed, so it doesn't read the removed visits anymore.
+                completePendingRemovals();
                 // Skipping the wrapper ExecutionException because it only tells that the problem occurred
                 // in solverFuture.get() but that's obvious.
                 throw new RuntimeException("Failed to stop solver", e.getCause());
@@ -150,6 +183,45 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
         }
     }
 
+    /**
+     * Routes of the last best solution found by any solver run, without the visits and vehicles that have been
+     * {@link #forgetVisit(long) forgotten} since.
+     * <p>
+     * A best solution found before the solver processes a removal can bring a removed visit or vehicle back.
+     * {@link org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory#initializeFromRoutes Restoring}
+     * the routes skips those.
+     *
+     * @return last routes, never null
+     */
+    RouteSnapshot lastRoutes() {
+        return lastRoutes.get();
+    }
+
+    /**
+     * Remove a visit from the {@link #lastRoutes() last routes}.
+     *
+     * @param visitId ID of the removed visit
+     */
+    void forgetVisit(long visitId) {
+        lastRoutes.updateAndGet(routes -> routes.withoutVisit(visitId));
+    }
+
+    /**
+     * Remove a vehicle from the {@link #lastRoutes() last routes}. Its route is kept for another vehicle.
+     *
+     * @param vehicleId ID of the removed vehicle
+     */
+    void forgetVehicle(long vehicleId) {
+        lastRoutes.updateAndGet(routes -> routes.withoutVehicle(vehicleId));
+    }
+
+    /**
+     * Forget all {@link #lastRoutes() last routes}.
+     */
+    void forgetRoutes() {
+        lastRoutes.set(RouteSnapshot.EMPTY);
+    }
+
     private void assertSolverIsAlive() {
         if (solverFuture == null) {
             throw new IllegalStateException("Solver has not started yet");
@@ -171,27 +243,59 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
 
     void addVisit(PlanningVisit visit) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new AddVisit(visit));
+        problemFactChanges.add(new AddVisit(visit));
     }
 
-    void removeVisit(PlanningVisit visit) {
+    void addVisits(List<PlanningVisit> visits) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new RemoveVisit(visit));
+        problemFactChanges.add(new AddVisits(visits));
+    }
+
+    /**
+     * Remove the visit from the solver's working solution.
+     *
+     * @param visit removed visit
+     * @return completes when the solver has processed the removal, when it has stopped or when it has failed
+     */
+    CompletableFuture<Void> removeVisit(PlanningVisit visit) {
+        assertSolverIsAlive();
+        CompletableFuture<Void> removed = new CompletableFuture<>();
+        pendingRemovals.add(removed);
+        RemoveVisit removeVisit = new RemoveVisit(visit);
+        problemFactChanges.add(scoreDirector -> {
+            removeVisit.doChange(scoreDirector);
+            // Runs on the solver thread. The working solution doesn't reference the visit anymore.
+            pendingRemovals.remove(removed);
+            removed.complete(null);
+        });
+        return removed;
+    }
+
+    private void completePendingRemovals() {
+        CompletableFuture<Void> removed;
+        while ((removed = pendingRemovals.poll()) != null) {
+            removed.complete(null);
+        }
     }
 
     void addVehicle(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new AddVehicle(vehicle));
+        problemFactChanges.add(new AddVehicle(vehicle));
     }
 
     void removeVehicle(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new RemoveVehicle(vehicle));
+        problemFactChanges.add(new RemoveVehicle(vehicle));
     }
 
     void changeCapacity(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new ChangeVehicleCapacity(vehicle));
+        problemFactChanges.add(new ChangeVehicleCapacity(vehicle));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        problemFactChanges.shutdown();
     }
 
     /**
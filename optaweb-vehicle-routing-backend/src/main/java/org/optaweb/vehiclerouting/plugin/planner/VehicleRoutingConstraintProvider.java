@@ -51,7 +51,7 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
                 .penalizeLong(
                         "distance from previous standstill",
                         HardSoftLongScore.ONE_SOFT,
-                        PlanningVisit::distanceFromPreviousStandstill);
+                        PlanningVisit::getPreviousLegDistance);
     }
 
     Constraint distanceFromLastVisitToDepot(ConstraintFactory constraintFactory) {
@@ -60,18 +60,12 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
                 .penalizeLong(
                         "distance from last visit to depot",
                         HardSoftLongScore.ONE_SOFT,
-                        PlanningVisit::distanceToDepot);
+                        PlanningVisit::getReturnLegDistance);
     }
 
     Constraint skill(ConstraintFactory constraintFactory) {
         return constraintFactory.from(PlanningVisit.class)
-                .filter(visit -> {
-                    /*
-                     * System.out.println("visit vehicle : " + visit.getVehicle().getSkillSet() + " , Required Skill : "
-                     * + visit.getLocation().getRequiredSkill());
-                     */
-                    return !visit.getVehicle().getSkillSet().contains(visit.getRequiredSkill());
-                })
+                .filter(visit -> !visit.getVehicle().hasSkill(visit.getRequiredSkillIndex()))
                 .penalize(
                         "required skill",
                         HardSoftLongScore.ONE_HARD);
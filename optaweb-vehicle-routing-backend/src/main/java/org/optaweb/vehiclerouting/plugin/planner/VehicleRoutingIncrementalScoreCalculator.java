@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.score.calculator.IncrementalScoreCalculator;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+/**
+ * Hand-written incremental alternative to {@link VehicleRoutingConstraintProvider}. Calculates the same score.
+ * <p>
+ * Each initialized visit contributes to the score based on its vehicle, its cached leg distances and whether it's
+ * the last visit of the chain. A visit's contribution is retracted before any of its variables changes and inserted
+ * again afterwards. Demand totals are kept per vehicle so that capacity overflow is adjusted in constant time.
+ */
+public class VehicleRoutingIncrementalScoreCalculator
+        implements IncrementalScoreCalculator<VehicleRoutingSolution, HardSoftLongScore> {
+
+    private final Map<PlanningVehicle, Integer> vehicleDemandMap = new HashMap<>();
+    private long hardScore;
+    private long softScore;
+
+    @Override
+    public void resetWorkingSolution(VehicleRoutingSolution workingSolution) {
+        vehicleDemandMap.clear();
+        for (PlanningVehicle vehicle : workingSolution.getVehicleList()) {
+            vehicleDemandMap.put(vehicle, 0);
+        }
+        hardScore = 0;
+        softScore = 0;
+        for (PlanningVisit visit : workingSolution.getVisitList()) {
+            insert(visit);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // Do nothing.
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        if (entity instanceof PlanningVisit) {
+            insert((PlanningVisit) entity);
+        }
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        if (entity instanceof PlanningVisit) {
+            retract((PlanningVisit) entity);
+        }
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        if (entity instanceof PlanningVisit) {
+            insert((PlanningVisit) entity);
+        }
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        if (entity instanceof PlanningVisit) {
+            retract((PlanningVisit) entity);
+        }
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        // Do nothing.
+    }
+
+    private void insert(PlanningVisit visit) {
+        PlanningVehicle vehicle = visit.getVehicle();
+        if (visit.getPreviousStandstill() == null || vehicle == null) {
+            // Uninitialized visits don't contribute to the score (the same as in constraint streams).
+            return;
+        }
+        int oldDemand = vehicleDemandMap.getOrDefault(vehicle, 0);
+        int newDemand = oldDemand + visit.getDemand();
+        hardScore += overCapacity(vehicle, oldDemand) - overCapacity(vehicle, newDemand);
+        vehicleDemandMap.put(vehicle, newDemand);
+        if (!vehicle.hasSkill(visit.getRequiredSkillIndex())) {
+            hardScore--;
+        }
+        softScore -= legDistance(visit.getPreviousLegDistance());
+        if (visit.isLast()) {
+            softScore -= legDistance(visit.getReturnLegDistance());
+        }
+    }
+
+    private void retract(PlanningVisit visit) {
+        PlanningVehicle vehicle = visit.getVehicle();
+        if (visit.getPreviousStandstill() == null || vehicle == null) {
+            return;
+        }
+        int oldDemand = vehicleDemandMap.getOrDefault(vehicle, 0);
+        int newDemand = oldDemand - visit.getDemand();
+        hardScore += overCapacity(vehicle, oldDemand) - overCapacity(vehicle, newDemand);
+        vehicleDemandMap.put(vehicle, newDemand);
+        if (!vehicle.hasSkill(visit.getRequiredSkillIndex())) {
+            hardScore++;
+        }
+        softScore += legDistance(visit.getPreviousLegDistance());
+        if (visit.isLast()) {
+            softScore += legDistance(visit.getReturnLegDistance());
+        }
+    }
+
+    /**
+     * The vehicle anchor changes before the leg distances are updated, so a visit can be inserted while its leg
+     * distances are still missing. They are inserted again when they change, so counting them as zero is safe.
+     */
+    private static long legDistance(Long distance) {
+        return distance == null ? 0 : distance;
+    }
+
+    private static long overCapacity(PlanningVehicle vehicle, int demand) {
+        return Math.max(0, demand - vehicle.getCapacity());
+    }
+
+    @Override
+    public HardSoftLongScore calculateScore() {
+        return HardSoftLongScore.of(hardScore, softScore);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Objects;
 import org.optaplanner.core.api.score.director.ScoreDirector;
 import org.optaplanner.core.api.solver.ProblemFactChange;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 
 public class AddVehicle implements ProblemFactChange<VehicleRoutingSolution> {
@@ -28,13 +29,20 @@ public class AddVehicle implements ProblemFactChange<VehicleRoutingSolution> {
     private final PlanningVehicle vehicle;
 
     public AddVehicle(PlanningVehicle vehicle) {
-        this.vehicle = Objects.requireNonNull(vehicle);
+        // Take a copy so that the caller can't modify the vehicle while it's being solved (possibly by move threads).
+        this.vehicle = PlanningVehicleFactory.copyOf(Objects.requireNonNull(vehicle));
     }
 
     @Override
     public void doChange(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+        VehicleRoutingSolution workingSolution = scoreDirector.getWorkingSolution();
+        if (workingSolution.getDepotList().isEmpty()) {
+            throw new IllegalStateException("Can't add " + vehicle + " because the working solution has no depot");
+        }
+        vehicle.setDepot(workingSolution.getDepotList().get(0));
+
         scoreDirector.beforeProblemFactAdded(vehicle);
-        scoreDirector.getWorkingSolution().getVehicleList().add(vehicle);
+        workingSolution.getVehicleList().add(vehicle);
         scoreDirector.afterProblemFactAdded(vehicle);
 
         scoreDirector.triggerVariableListeners();
@@ -21,6 +21,7 @@ import java.util.Objects;
 import org.optaplanner.core.api.score.director.ScoreDirector;
 import org.optaplanner.core.api.solver.ProblemFactChange;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 
 public class AddVisit implements ProblemFactChange<VehicleRoutingSolution> {
@@ -28,7 +29,8 @@ public class AddVisit implements ProblemFactChange<VehicleRoutingSolution> {
     private final PlanningVisit visit;
 
     public AddVisit(PlanningVisit visit) {
-        this.visit = Objects.requireNonNull(visit);
+        // Take a copy so that the caller can't modify the visit while it's being solved (possibly by move threads).
+        this.visit = PlanningVisitFactory.copyOf(Objects.requireNonNull(visit));
     }
 
     @Override
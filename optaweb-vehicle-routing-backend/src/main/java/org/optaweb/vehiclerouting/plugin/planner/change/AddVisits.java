@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.change;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.api.solver.ProblemFactChange;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+/**
+ * Adds many visits in a single problem fact change so that the solver only restarts once.
+ */
+public class AddVisits implements ProblemFactChange<VehicleRoutingSolution> {
+
+    private final List<PlanningVisit> visits;
+
+    public AddVisits(List<PlanningVisit> visits) {
+        // Take copies so that the caller can't modify the visits while they're being solved (possibly by move threads).
+        this.visits = Objects.requireNonNull(visits).stream()
+                .map(PlanningVisitFactory::copyOf)
+                .collect(toList());
+    }
+
+    @Override
+    public void doChange(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+        List<PlanningVisit> visitList = scoreDirector.getWorkingSolution().getVisitList();
+        for (PlanningVisit visit : visits) {
+            scoreDirector.beforeEntityAdded(visit);
+            visitList.add(visit);
+            scoreDirector.afterEntityAdded(visit);
+        }
+
+        scoreDirector.triggerVariableListeners();
+    }
+}
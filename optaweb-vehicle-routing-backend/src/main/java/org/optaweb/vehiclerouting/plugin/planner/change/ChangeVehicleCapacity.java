@@ -21,6 +21,7 @@ import java.util.Objects;
 import org.optaplanner.core.api.score.director.ScoreDirector;
 import org.optaplanner.core.api.solver.ProblemFactChange;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 
 public class ChangeVehicleCapacity implements ProblemFactChange<VehicleRoutingSolution> {
@@ -28,7 +29,8 @@ public class ChangeVehicleCapacity implements ProblemFactChange<VehicleRoutingSo
     private final PlanningVehicle vehicle;
 
     public ChangeVehicleCapacity(PlanningVehicle vehicle) {
-        this.vehicle = Objects.requireNonNull(vehicle);
+        // Take a copy to capture the new capacity. The caller may change it again before this change is processed.
+        this.vehicle = PlanningVehicleFactory.copyOf(Objects.requireNonNull(vehicle));
     }
 
     @Override
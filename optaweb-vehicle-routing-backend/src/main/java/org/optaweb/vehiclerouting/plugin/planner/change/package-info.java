@@ -17,6 +17,10 @@
 /**
  * {@link org.optaplanner.core.api.solver.ProblemFactChange} implementations.
  * <p>
+ * Changes are created on the caller's thread and executed later on the solver thread. To be safe with multithreaded
+ * solving, a change copies the entities it adds when it is created and finds everything else in the working solution
+ * using {@code ScoreDirector.lookUpWorkingObject()}. It never keeps a reference to an object the caller can modify.
+ * <p>
  * Problem fact changes are difficult to write correctly. To understand the code and when implementing new fact changes,
  * read <a href="https://docs.jboss.org/optaplanner/release/latest/optaplanner-docs/html_single/#problemFactChange">
  * ProblemFactChange documentation</a>.
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.domain;
+
+import java.util.Objects;
+
+import org.optaplanner.core.api.domain.variable.VariableListener;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+
+/**
+ * Keeps {@link PlanningVisit#getPreviousLegDistance()} and {@link PlanningVisit#getReturnLegDistance()} up to date.
+ * The distances are only looked up when the visit's previous standstill or vehicle changes, not each time
+ * the score is calculated.
+ */
+public class LegDistanceUpdatingVariableListener implements VariableListener<VehicleRoutingSolution, PlanningVisit> {
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        // Do nothing.
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        updateLegDistances(scoreDirector, visit);
+    }
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        // Do nothing.
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        updateLegDistances(scoreDirector, visit);
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        // Do nothing.
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        // Do nothing.
+    }
+
+    private static void updateLegDistances(ScoreDirector<VehicleRoutingSolution> scoreDirector, PlanningVisit visit) {
+        Long previousLegDistance = visit.getPreviousStandstill() == null
+                ? null
+                : visit.distanceFromPreviousStandstill();
+        if (!Objects.equals(visit.getPreviousLegDistance(), previousLegDistance)) {
+            scoreDirector.beforeVariableChanged(visit, "previousLegDistance");
+            visit.setPreviousLegDistance(previousLegDistance);
+            scoreDirector.afterVariableChanged(visit, "previousLegDistance");
+        }
+        PlanningVehicle vehicle = visit.getVehicle();
+        Long returnLegDistance = vehicle == null || vehicle.getDepot() == null ? null : visit.distanceToDepot();
+        if (!Objects.equals(visit.getReturnLegDistance(), returnLegDistance)) {
+            scoreDirector.beforeVariableChanged(visit, "returnLegDistance");
+            visit.setReturnLegDistance(returnLegDistance);
+            scoreDirector.afterVariableChanged(visit, "returnLegDistance");
+        }
+    }
+}
@@ -20,15 +20,29 @@ import java.util.Objects;
 
 public class PlanningLocation {
 
+    /**
+     * Index of a location that has no row in the distance matrix.
+     */
+    public static final int NO_INDEX = -1;
+
     private final long id;
+    // Dense index in the distance matrix. Lets distance maps resolve distances without hashing.
+    private final int index;
     // Only used to calculate angle.
     private final double latitude;
     private final double longitude;
     private final String requiredSkill;
     private final DistanceMap travelDistanceMap;
 
-    PlanningLocation(long id, double latitude, double longitude, DistanceMap travelDistanceMap, String requiredSkill) {
+    PlanningLocation(
+            long id,
+            int index,
+            double latitude,
+            double longitude,
+            DistanceMap travelDistanceMap,
+            String requiredSkill) {
         this.id = id;
+        this.index = index;
         this.latitude = latitude;
         this.longitude = longitude;
         this.travelDistanceMap = Objects.requireNonNull(travelDistanceMap);
@@ -60,6 +74,15 @@ public class PlanningLocation {
         return id;
     }
 
+    /**
+     * Index of this location in the distance matrix.
+     *
+     * @return dense matrix index or {@link #NO_INDEX} if this location is not backed by the distance matrix
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * Distance to the given location.
      *
@@ -93,6 +116,7 @@ public class PlanningLocation {
                 ",longitude=" + longitude +
                 ",travelDistanceMap=" + travelDistanceMap +
                 ",id=" + id +
+                ",index=" + index +
                 '}';
     }
 }
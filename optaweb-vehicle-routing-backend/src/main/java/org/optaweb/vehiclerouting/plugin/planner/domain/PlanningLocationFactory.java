@@ -46,8 +46,21 @@ public class PlanningLocationFactory {
      * @return planning location
      */
     public static PlanningLocation fromDomain(Location location, DistanceMap distanceMap) {
+        return fromDomain(location, PlanningLocation.NO_INDEX, distanceMap);
+    }
+
+    /**
+     * Create planning location from a domain location, its distance matrix index and a distance map.
+     *
+     * @param location domain location
+     * @param index dense index of the location in the distance matrix
+     * @param distanceMap distance map of this planning location
+     * @return planning location
+     */
+    public static PlanningLocation fromDomain(Location location, int index, DistanceMap distanceMap) {
         return new PlanningLocation(
                 location.id(),
+                index,
                 location.coordinates().latitude().doubleValue(),
                 location.coordinates().longitude().doubleValue(),
                 distanceMap, location.requiredSkill());
@@ -71,7 +84,7 @@ public class PlanningLocationFactory {
      * @return planning location with distance map and without coordinates
      */
     public static PlanningLocation testLocation(long id, DistanceMap distanceMap) {
-        return new PlanningLocation(id, 0, 0, distanceMap, "depot");
+        return new PlanningLocation(id, PlanningLocation.NO_INDEX, 0, 0, distanceMap, "depot");
     }
 
     private static long failFast(PlanningLocation location) {
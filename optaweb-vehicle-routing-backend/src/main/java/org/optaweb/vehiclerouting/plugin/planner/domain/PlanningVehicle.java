@@ -16,6 +16,7 @@
 
 package org.optaweb.vehiclerouting.plugin.planner.domain;
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -29,6 +30,8 @@ public class PlanningVehicle implements Standstill {
     private int capacity;
     private PlanningDepot depot;
     private Set<String> skillSet;
+    // Derived from skillSet. Must not be modified because it's shared by solution clones.
+    private BitSet skillMask = new BitSet();
 
     // Shadow variables
     private PlanningVisit nextVisit;
@@ -68,6 +71,17 @@ public class PlanningVehicle implements Standstill {
 
     public void setSkillSet(Set<String> skillSet) {
         this.skillSet = skillSet;
+        this.skillMask = SkillRegistry.maskOf(skillSet);
+    }
+
+    /**
+     * Whether the vehicle's driver has the skill.
+     *
+     * @param skillIndex {@link SkillRegistry#indexOf(String) index} of the skill
+     * @return true if the skill is in the vehicle's skill set
+     */
+    public boolean hasSkill(int skillIndex) {
+        return SkillRegistry.contains(skillMask, skillIndex);
     }
 
     @Override
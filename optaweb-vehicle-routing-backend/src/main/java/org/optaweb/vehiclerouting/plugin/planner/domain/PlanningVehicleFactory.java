@@ -40,6 +40,17 @@ public class PlanningVehicleFactory {
         return vehicle(domainVehicle.id(), domainVehicle.capacity(), domainVehicle.skillSet());
     }
 
+    /**
+     * Create a copy of the vehicle's problem properties. The copy has no depot and no visits.
+     * Use this to hand a vehicle over to the solver without sharing mutable state with the caller.
+     *
+     * @param vehicle original vehicle
+     * @return new vehicle with the same ID, capacity and skill set
+     */
+    public static PlanningVehicle copyOf(PlanningVehicle vehicle) {
+        return vehicle(vehicle.getId(), vehicle.getCapacity(), new HashSet<>(vehicle.getSkillSet()));
+    }
+
     /**
      * Create a testing vehicle with zero capacity.
      *
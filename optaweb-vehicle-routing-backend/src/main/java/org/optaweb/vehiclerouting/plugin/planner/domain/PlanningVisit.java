@@ -19,18 +19,28 @@ package org.optaweb.vehiclerouting.plugin.planner.domain;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.AnchorShadowVariable;
+import org.optaplanner.core.api.domain.variable.CustomShadowVariable;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaplanner.core.api.domain.variable.PlanningVariableGraphType;
+import org.optaplanner.core.api.domain.variable.PlanningVariableReference;
 import org.optaweb.vehiclerouting.plugin.planner.weight.DepotAngleVisitDifficultyWeightFactory;
 
 @PlanningEntity(difficultyWeightFactoryClass = DepotAngleVisitDifficultyWeightFactory.class)
 public class PlanningVisit implements Standstill {
 
+    // Marks depot metrics that haven't been computed yet. Generated IDs are positive so no depot has this ID.
+    private static final long NO_DEPOT = Long.MIN_VALUE;
+
     @PlanningId
     private long id;
     private PlanningLocation location;
     private int demand;
     private String requiredSkill;
+    private int requiredSkillIndex = SkillRegistry.NO_SKILL;
+    // Derived from the location and the depot. Computed when first needed, see #depotAngle(PlanningDepot).
+    private long depotMetricsDepotId = NO_DEPOT;
+    private double depotAngle;
+    private long depotRoundTripDistance;
 
     // Planning variable: changes during planning, between score calculations.
     @PlanningVariable(valueRangeProviderRefs = { "vehicleRange", "visitRange" },
@@ -41,6 +51,13 @@ public class PlanningVisit implements Standstill {
     private PlanningVisit nextVisit;
     @AnchorShadowVariable(sourceVariableName = "previousStandstill")
     private PlanningVehicle vehicle;
+    // Cached distances so that score calculation doesn't have to look them up in the distance map.
+    @CustomShadowVariable(variableListenerClass = LegDistanceUpdatingVariableListener.class,
+            sources = { @PlanningVariableReference(variableName = "previousStandstill"),
+                    @PlanningVariableReference(variableName = "vehicle") })
+    private Long previousLegDistance;
+    @CustomShadowVariable(variableListenerRef = @PlanningVariableReference(variableName = "previousLegDistance"))
+    private Long returnLegDistance;
 
     PlanningVisit() {
         // Hide public constructor in favor of the factory.
@@ -77,6 +94,16 @@ public class PlanningVisit implements Standstill {
 
     public void setRequiredSkill(String requiredSkill) {
         this.requiredSkill = requiredSkill;
+        this.requiredSkillIndex = SkillRegistry.indexOf(requiredSkill);
+    }
+
+    /**
+     * {@link SkillRegistry#indexOf(String) Index} of the required skill.
+     *
+     * @return required skill index
+     */
+    public int getRequiredSkillIndex() {
+        return requiredSkillIndex;
     }
 
     public Standstill getPreviousStandstill() {
@@ -105,6 +132,33 @@ public class PlanningVisit implements Standstill {
         this.vehicle = vehicle;
     }
 
+    /**
+     * Cached {@link #distanceFromPreviousStandstill() distance from the previous standstill}.
+     *
+     * @return distance from previous standstill to this visit or {@code null} if this visit isn't initialized
+     */
+    public Long getPreviousLegDistance() {
+        return previousLegDistance;
+    }
+
+    public void setPreviousLegDistance(Long previousLegDistance) {
+        this.previousLegDistance = previousLegDistance;
+    }
+
+    /**
+     * Cached {@link #distanceToDepot() distance to the depot}. Only counts towards the score if this visit
+     * is the {@link #isLast() last} one.
+     *
+     * @return distance from this visit back to its vehicle's depot or {@code null} if this visit isn't initialized
+     */
+    public Long getReturnLegDistance() {
+        return returnLegDistance;
+    }
+
+    public void setReturnLegDistance(Long returnLegDistance) {
+        this.returnLegDistance = returnLegDistance;
+    }
+
     // ************************************************************************
     // Complex methods
     // ************************************************************************
@@ -134,6 +188,49 @@ public class PlanningVisit implements Standstill {
         return location.distanceTo(vehicle.getLocation());
     }
 
+    /**
+     * Angle of the line from this visit to the depot relative to visit→east. Only computed once per depot and cached,
+     * so that sorting visits by difficulty is cheap even when it's repeated after each problem fact change.
+     *
+     * @param depot depot
+     * @return angle in radians in the range of -π to π
+     */
+    public double depotAngle(PlanningDepot depot) {
+        updateDepotMetrics(depot);
+        return depotAngle;
+    }
+
+    /**
+     * Distance from this visit to the depot and back. Only computed once per depot and cached.
+     *
+     * @param depot depot
+     * @return round trip distance
+     */
+    public long depotRoundTripDistance(PlanningDepot depot) {
+        updateDepotMetrics(depot);
+        return depotRoundTripDistance;
+    }
+
+    /**
+     * Take over the other visit's cached depot metrics. Only valid if both visits have the same location.
+     *
+     * @param visit visit at the same location
+     */
+    void copyDepotMetrics(PlanningVisit visit) {
+        depotAngle = visit.depotAngle;
+        depotRoundTripDistance = visit.depotRoundTripDistance;
+        depotMetricsDepotId = visit.depotMetricsDepotId;
+    }
+
+    private void updateDepotMetrics(PlanningDepot depot) {
+        if (depotMetricsDepotId == NO_DEPOT || depotMetricsDepotId != depot.getId()) {
+            depotAngle = location.angleTo(depot.getLocation());
+            depotRoundTripDistance = location.distanceTo(depot.getLocation())
+                    + depot.getLocation().distanceTo(location);
+            depotMetricsDepotId = depot.getId();
+        }
+    }
+
     /**
      * Whether this visit is the last in a chain.
      *
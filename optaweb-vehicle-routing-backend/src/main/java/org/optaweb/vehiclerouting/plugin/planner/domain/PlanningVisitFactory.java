@@ -53,6 +53,20 @@ public class PlanningVisitFactory {
         return visit;
     }
 
+    /**
+     * Create a copy of the visit's problem properties. Planning and shadow variables of the copy are not initialized.
+     * Use this to hand a visit over to the solver without sharing mutable state with the caller.
+     * The copy keeps the cached depot metrics because it has the same location.
+     *
+     * @param visit original visit
+     * @return new, uninitialized visit with the same ID, location, demand and required skill
+     */
+    public static PlanningVisit copyOf(PlanningVisit visit) {
+        PlanningVisit copy = fromLocation(visit.getLocation(), visit.getDemand(), visit.getRequiredSkill());
+        copy.copyDepotMetrics(visit);
+        return copy;
+    }
+
     /**
      * Create a test visit with the given ID.
      *
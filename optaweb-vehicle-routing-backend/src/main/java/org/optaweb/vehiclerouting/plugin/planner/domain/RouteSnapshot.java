@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.domain;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Order of visits on each vehicle's route, by ID. Unlike a {@link VehicleRoutingSolution}, it doesn't reference any
+ * planning entities, so it can be kept after the solver stops without keeping the solver's working entities alive.
+ * <p>
+ * Immutable. Removing a visit or a vehicle creates a new snapshot. The route of a removed vehicle is kept without
+ * a vehicle so that it can be given to another vehicle.
+ */
+public final class RouteSnapshot {
+
+    public static final RouteSnapshot EMPTY = new RouteSnapshot(emptyList());
+
+    private static final long NO_VEHICLE = Long.MIN_VALUE;
+
+    private final List<Route> routes;
+
+    private RouteSnapshot(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Take a snapshot of the solution's routes.
+     *
+     * @param solution solution (won't be modified)
+     * @return routes of all the solution's vehicles
+     */
+    public static RouteSnapshot of(VehicleRoutingSolution solution) {
+        List<Route> routes = new ArrayList<>(solution.getVehicleList().size());
+        for (PlanningVehicle vehicle : solution.getVehicleList()) {
+            int visitCount = 0;
+            for (PlanningVisit visit = vehicle.getNextVisit(); visit != null; visit = visit.getNextVisit()) {
+                visitCount++;
+            }
+            long[] visitIds = new long[visitCount];
+            int i = 0;
+            for (PlanningVisit visit = vehicle.getNextVisit(); visit != null; visit = visit.getNextVisit()) {
+                visitIds[i++] = visit.getId();
+            }
+            routes.add(new Route(vehicle.getId(), visitIds));
+        }
+        return new RouteSnapshot(Collections.unmodifiableList(routes));
+    }
+
+    /**
+     * Remove a visit from its route. Its neighbors are connected directly.
+     *
+     * @param visitId ID of the removed visit
+     * @return snapshot without the visit
+     */
+    public RouteSnapshot withoutVisit(long visitId) {
+        List<Route> newRoutes = new ArrayList<>(routes.size());
+        boolean found = false;
+        for (Route route : routes) {
+            long[] visitIds = Arrays.stream(route.visitIds).filter(id -> id != visitId).toArray();
+            found |= visitIds.length != route.visitIds.length;
+            newRoutes.add(new Route(route.vehicleId, visitIds));
+        }
+        return found ? new RouteSnapshot(Collections.unmodifiableList(newRoutes)) : this;
+    }
+
+    /**
+     * Remove a vehicle. Its route is kept so that it can be given to a vehicle that isn't in this snapshot.
+     *
+     * @param vehicleId ID of the removed vehicle
+     * @return snapshot without the vehicle
+     */
+    public RouteSnapshot withoutVehicle(long vehicleId) {
+        List<Route> newRoutes = new ArrayList<>(routes.size());
+        boolean found = false;
+        for (Route route : routes) {
+            if (route.vehicleId == vehicleId) {
+                found = true;
+                if (route.visitIds.length > 0) {
+                    newRoutes.add(new Route(NO_VEHICLE, route.visitIds));
+                }
+            } else {
+                newRoutes.add(route);
+            }
+        }
+        return found ? new RouteSnapshot(Collections.unmodifiableList(newRoutes)) : this;
+    }
+
+    /**
+     * Whether there's any route with at least one visit.
+     *
+     * @return true if there's no visit in this snapshot
+     */
+    public boolean isEmpty() {
+        return routes.stream().allMatch(route -> route.visitIds.length == 0);
+    }
+
+    List<Route> routes() {
+        return routes;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteSnapshot{" + routes + '}';
+    }
+
+    static final class Route {
+
+        private final long vehicleId;
+        private final long[] visitIds;
+
+        private Route(long vehicleId, long[] visitIds) {
+            this.vehicleId = vehicleId;
+            this.visitIds = visitIds;
+        }
+
+        boolean hasVehicle() {
+            return vehicleId != NO_VEHICLE;
+        }
+
+        long vehicleId() {
+            return vehicleId;
+        }
+
+        long[] visitIds() {
+            return visitIds;
+        }
+
+        @Override
+        public String toString() {
+            return (hasVehicle() ? Long.toString(vehicleId) : "no vehicle") + "=" + Arrays.toString(visitIds);
+        }
+    }
+}
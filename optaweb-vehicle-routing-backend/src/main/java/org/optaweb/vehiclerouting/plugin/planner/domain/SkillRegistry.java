@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.domain;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns skills so that they can be matched by index instead of by string comparison.
+ * <p>
+ * Each distinct skill gets a small, stable index the first time it is seen. A set of skills is then represented
+ * as a {@link BitSet} of skill indexes, and checking whether a set contains a skill is a single bit test.
+ * Indexes are never reused while the application is running.
+ */
+public final class SkillRegistry {
+
+    /**
+     * Index of a missing ({@code null}) skill. No skill set contains it.
+     */
+    public static final int NO_SKILL = -1;
+
+    private static final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    // Guarded by itself.
+    private static final List<String> skills = new ArrayList<>();
+
+    private SkillRegistry() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Get the index of a skill, registering the skill if it hasn't been seen yet.
+     *
+     * @param skill skill name
+     * @return skill index or {@link #NO_SKILL} if the skill is {@code null}
+     */
+    public static int indexOf(String skill) {
+        if (skill == null) {
+            return NO_SKILL;
+        }
+        Integer index = indexes.get(skill);
+        return index != null ? index : register(skill);
+    }
+
+    private static int register(String skill) {
+        synchronized (skills) {
+            return indexes.computeIfAbsent(skill, key -> {
+                skills.add(key);
+                return skills.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Get a bit mask of skills, registering skills that haven't been seen yet.
+     *
+     * @param skillSet skill names (may be {@code null}, which is the same as an empty skill set)
+     * @return new bit set with the skills' indexes set
+     */
+    public static BitSet maskOf(Collection<String> skillSet) {
+        BitSet mask = new BitSet();
+        if (skillSet == null) {
+            return mask;
+        }
+        for (String skill : skillSet) {
+            int index = indexOf(skill);
+            if (index != NO_SKILL) {
+                mask.set(index);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Whether the mask contains the skill.
+     *
+     * @param mask skill mask created by {@link #maskOf(Collection)}
+     * @param skillIndex skill index returned by {@link #indexOf(String)}
+     * @return true if the skill is in the mask
+     */
+    public static boolean contains(BitSet mask, int skillIndex) {
+        return skillIndex != NO_SKILL && mask.get(skillIndex);
+    }
+
+    /**
+     * All skills registered so far.
+     *
+     * @return skill names ordered by their index
+     */
+    public static List<String> skills() {
+        synchronized (skills) {
+            return new ArrayList<>(skills);
+        }
+    }
+}
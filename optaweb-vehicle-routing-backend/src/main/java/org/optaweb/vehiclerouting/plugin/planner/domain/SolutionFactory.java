@@ -16,8 +16,14 @@
 
 package org.optaweb.vehiclerouting.plugin.planner.domain;
 
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 
@@ -74,6 +80,69 @@ public class SolutionFactory {
         return solution;
     }
 
+    /**
+     * Initialize the solution's visits with previous routes, so that the solver doesn't have to construct them again.
+     * Vehicles and visits are matched by ID. Routes whose vehicle is not in the solution are given to vehicles
+     * that don't have a previous route, in the order of the solution's vehicle list. Visits that are not
+     * in any previous route stay uninitialized. Visits of previous routes that no longer exist are skipped and their
+     * neighbors are connected directly.
+     * <p>
+     * Visits of the solution must be uninitialized and all vehicles must be in the depot.
+     *
+     * @param solution new solution (will be modified)
+     * @param previousRoutes routes to restore
+     * @return number of initialized visits
+     */
+    public static int initializeFromRoutes(VehicleRoutingSolution solution, RouteSnapshot previousRoutes) {
+        if (solution.getDepotList().isEmpty()) {
+            return 0;
+        }
+        Map<Long, PlanningVehicle> vehicles = solution.getVehicleList().stream()
+                .collect(toMap(PlanningVehicle::getId, identity(), (a, b) -> a, LinkedHashMap::new));
+        Map<Long, PlanningVisit> visits = solution.getVisitList().stream()
+                .collect(toMap(PlanningVisit::getId, identity()));
+        List<RouteSnapshot.Route> routesWithoutVehicle = new ArrayList<>();
+        int initializedVisitCount = 0;
+        for (RouteSnapshot.Route route : previousRoutes.routes()) {
+            PlanningVehicle vehicle = route.hasVehicle() ? vehicles.remove(route.vehicleId()) : null;
+            if (vehicle == null) {
+                routesWithoutVehicle.add(route);
+            } else {
+                initializedVisitCount += initializeRoute(vehicle, route, visits);
+            }
+        }
+        Iterator<PlanningVehicle> vehiclesWithoutRoute = vehicles.values().iterator();
+        for (RouteSnapshot.Route route : routesWithoutVehicle) {
+            if (!vehiclesWithoutRoute.hasNext()) {
+                break;
+            }
+            initializedVisitCount += initializeRoute(vehiclesWithoutRoute.next(), route, visits);
+        }
+        return initializedVisitCount;
+    }
+
+    private static int initializeRoute(PlanningVehicle vehicle, RouteSnapshot.Route route,
+            Map<Long, PlanningVisit> visits) {
+        int initializedVisitCount = 0;
+        Standstill previousStandstill = vehicle;
+        for (long visitId : route.visitIds()) {
+            // Removing it from the map also makes sure that the visit isn't added to another chain.
+            PlanningVisit visit = visits.remove(visitId);
+            if (visit == null) {
+                continue;
+            }
+            visit.setPreviousStandstill(previousStandstill);
+            previousStandstill.setNextVisit(visit);
+            // Shadow variables must be consistent because the solver doesn't recalculate them.
+            visit.setVehicle(vehicle);
+            visit.setPreviousLegDistance(visit.distanceFromPreviousStandstill());
+            visit.setReturnLegDistance(visit.distanceToDepot());
+            previousStandstill = visit;
+            initializedVisitCount++;
+        }
+        return initializedVisitCount;
+    }
+
     private static void moveAllVehiclesToDepot(List<PlanningVehicle> vehicles, PlanningDepot depot) {
         vehicles.forEach(vehicle -> vehicle.setDepot(depot));
     }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.filter;
+
+import java.util.List;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.move.Move;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.ChangeMove;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.SwapMove;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.SubChainChangeMove;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.SubChainReversingChangeMove;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.SubChainReversingSwapMove;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.SubChainSwapMove;
+import org.optaplanner.core.impl.heuristic.selector.value.chained.SubChain;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+/**
+ * Rejects moves that put a visit on a vehicle lacking the visit's required skill while the visit's current vehicle
+ * has it. Such moves always break the {@code required skill} hard constraint, so scoring them is wasted effort.
+ * <p>
+ * Moves of visits that are already on an incompatible vehicle are accepted, so that the solver can still move them
+ * to a compatible vehicle or optimize their travel time if there is no compatible vehicle. Moves of unknown types
+ * are accepted as well.
+ */
+public class SkillCompatibilityMoveFilter
+        implements SelectionFilter<VehicleRoutingSolution, Move<VehicleRoutingSolution>> {
+
+    @Override
+    public boolean accept(ScoreDirector<VehicleRoutingSolution> scoreDirector, Move<VehicleRoutingSolution> move) {
+        if (move instanceof ChangeMove) {
+            ChangeMove<VehicleRoutingSolution> changeMove = (ChangeMove<VehicleRoutingSolution>) move;
+            return isCompatible(changeMove.getEntity(), vehicleOf(changeMove.getToPlanningValue()));
+        }
+        if (move instanceof SwapMove) {
+            SwapMove<VehicleRoutingSolution> swapMove = (SwapMove<VehicleRoutingSolution>) move;
+            return isCompatible(swapMove.getLeftEntity(), vehicleOf(swapMove.getRightEntity()))
+                    && isCompatible(swapMove.getRightEntity(), vehicleOf(swapMove.getLeftEntity()));
+        }
+        if (move instanceof SubChainChangeMove) {
+            SubChainChangeMove<VehicleRoutingSolution> subChainMove = (SubChainChangeMove<VehicleRoutingSolution>) move;
+            return isCompatible(
+                    subChainMove.getSubChain().getEntityList(),
+                    vehicleOf(subChainMove.getToPlanningValue()));
+        }
+        if (move instanceof SubChainReversingChangeMove) {
+            SubChainReversingChangeMove<VehicleRoutingSolution> subChainMove =
+                    (SubChainReversingChangeMove<VehicleRoutingSolution>) move;
+            return isCompatible(
+                    subChainMove.getSubChain().getEntityList(),
+                    vehicleOf(subChainMove.getToPlanningValue()));
+        }
+        if (move instanceof SubChainSwapMove) {
+            SubChainSwapMove<VehicleRoutingSolution> subChainMove = (SubChainSwapMove<VehicleRoutingSolution>) move;
+            return isCompatible(subChainMove.getLeftSubChain(), subChainMove.getRightSubChain());
+        }
+        if (move instanceof SubChainReversingSwapMove) {
+            SubChainReversingSwapMove<VehicleRoutingSolution> subChainMove =
+                    (SubChainReversingSwapMove<VehicleRoutingSolution>) move;
+            return isCompatible(subChainMove.getLeftSubChain(), subChainMove.getRightSubChain());
+        }
+        return true;
+    }
+
+    private static boolean isCompatible(SubChain leftSubChain, SubChain rightSubChain) {
+        return isCompatible(leftSubChain.getEntityList(), vehicleOf(rightSubChain.getFirstEntity()))
+                && isCompatible(rightSubChain.getEntityList(), vehicleOf(leftSubChain.getFirstEntity()));
+    }
+
+    private static boolean isCompatible(List<Object> entities, PlanningVehicle toVehicle) {
+        for (Object entity : entities) {
+            if (!isCompatible(entity, toVehicle)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCompatible(Object entity, PlanningVehicle toVehicle) {
+        if (!(entity instanceof PlanningVisit) || toVehicle == null) {
+            return true;
+        }
+        PlanningVisit visit = (PlanningVisit) entity;
+        int skillIndex = visit.getRequiredSkillIndex();
+        PlanningVehicle fromVehicle = visit.getVehicle();
+        return toVehicle.hasSkill(skillIndex) || fromVehicle == null || !fromVehicle.hasSkill(skillIndex);
+    }
+
+    private static PlanningVehicle vehicleOf(Object standstill) {
+        if (standstill instanceof PlanningVehicle) {
+            return (PlanningVehicle) standstill;
+        }
+        if (standstill instanceof PlanningVisit) {
+            return ((PlanningVisit) standstill).getVehicle();
+        }
+        return null;
+    }
+}
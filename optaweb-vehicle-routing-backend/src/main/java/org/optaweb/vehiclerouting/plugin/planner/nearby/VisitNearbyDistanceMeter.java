@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.nearby;
+
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.Standstill;
+
+/**
+ * Measures how close a standstill is to a visit using the travel time from the standstill to the visit.
+ * That is the leg a move adds when it makes the standstill the visit's previous standstill.
+ * <p>
+ * Reading the distance is a lookup in the dense distance matrix. OptaPlanner calls the meter when it builds
+ * the sorted nearest-neighbor list of each origin visit, and it keeps these lists for the rest of the phase.
+ */
+public class VisitNearbyDistanceMeter implements NearbyDistanceMeter<PlanningVisit, Standstill> {
+
+    @Override
+    public double getNearbyDistance(PlanningVisit origin, Standstill destination) {
+        return destination.getLocation().distanceTo(origin.getLocation());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.partition;
+
+import static java.util.Comparator.comparingDouble;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.Standstill;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the solution into sectors around the depot.
+ * <p>
+ * Routes are sorted by the average {@link PlanningVisit#depotAngle depot angle} of their visits and cut into
+ * contiguous groups with roughly the same number of visits. Each route stays whole in its part, so the parts start
+ * from the current solution instead of from scratch. This works best after a construction heuristic that sorts
+ * visits by depot angle, because its routes already look like pizza slices. Vehicles without visits are spread
+ * evenly among the parts and uninitialized visits go to the part whose sector is closest.
+ */
+public class DepotAngleSolutionPartitioner implements SolutionPartitioner<VehicleRoutingSolution> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DepotAngleSolutionPartitioner.class);
+
+    private int partCount = 4;
+    private int minimumVisitCount = 100;
+
+    public void setPartCount(int partCount) {
+        this.partCount = partCount;
+    }
+
+    public void setMinimumVisitCount(int minimumVisitCount) {
+        this.minimumVisitCount = minimumVisitCount;
+    }
+
+    @Override
+    public List<VehicleRoutingSolution> splitWorkingSolution(
+            ScoreDirector<VehicleRoutingSolution> scoreDirector,
+            Integer runnablePartThreadLimit) {
+        VehicleRoutingSolution solution = scoreDirector.getWorkingSolution();
+        PlanningDepot depot = solution.getDepotList().get(0);
+
+        List<Route> routes = new ArrayList<>();
+        List<PlanningVehicle> emptyVehicles = new ArrayList<>();
+        int routedVisitCount = 0;
+        for (PlanningVehicle vehicle : solution.getVehicleList()) {
+            Route route = new Route(vehicle, depot);
+            if (route.visits.isEmpty()) {
+                emptyVehicles.add(vehicle);
+            } else {
+                routes.add(route);
+                routedVisitCount += route.visits.size();
+            }
+        }
+        List<PlanningVisit> unassignedVisits = new ArrayList<>();
+        for (PlanningVisit visit : solution.getVisitList()) {
+            if (visit.getPreviousStandstill() == null) {
+                unassignedVisits.add(visit);
+            }
+        }
+
+        int count = Math.min(partCount, Math.min(routes.size(), routedVisitCount / Math.max(1, minimumVisitCount)));
+        if (count < 1) {
+            // Nothing to split by. Let a single part optimize everything.
+            count = 1;
+            if (routes.isEmpty()) {
+                routes.add(new Route(Collections.emptyList(), 0));
+            }
+        }
+
+        // Cut routes sorted by angle into contiguous sectors.
+        routes.sort(comparingDouble(route -> route.angle));
+        List<Part> parts = new ArrayList<>(count);
+        parts.add(new Part());
+        int targetVisitCount = (routedVisitCount + count - 1) / count;
+        for (Route route : routes) {
+            Part part = parts.get(parts.size() - 1);
+            if (!part.routes.isEmpty() && part.visitCount >= targetVisitCount && parts.size() < count) {
+                part = new Part();
+                parts.add(part);
+            }
+            part.add(route);
+        }
+        for (int i = 0; i < emptyVehicles.size(); i++) {
+            parts.get(i % parts.size()).emptyVehicles.add(emptyVehicles.get(i));
+        }
+        for (PlanningVisit visit : unassignedVisits) {
+            double angle = visit.depotAngle(depot);
+            Part closest = Collections.min(parts, comparingDouble(part -> angularDistance(part.angle(), angle)));
+            closest.unassignedVisits.add(visit);
+        }
+
+        List<VehicleRoutingSolution> partSolutions = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            partSolutions.add(part.toSolution(depot));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Split {} visits into {} parts ({} visits each on average).",
+                    solution.getVisitList().size(), parts.size(), solution.getVisitList().size() / parts.size());
+        }
+        return partSolutions;
+    }
+
+    private static double angularDistance(double angle1, double angle2) {
+        double distance = Math.abs(angle1 - angle2) % (2 * Math.PI);
+        return distance > Math.PI ? 2 * Math.PI - distance : distance;
+    }
+
+    private static final class Route {
+
+        private final PlanningVehicle vehicle;
+        private final List<PlanningVisit> visits;
+        private final double angle;
+
+        private Route(PlanningVehicle vehicle, PlanningDepot depot) {
+            this.vehicle = vehicle;
+            this.visits = new ArrayList<>();
+            double sin = 0;
+            double cos = 0;
+            for (PlanningVisit visit : vehicle.getFutureVisits()) {
+                visits.add(visit);
+                double visitAngle = visit.depotAngle(depot);
+                sin += Math.sin(visitAngle);
+                cos += Math.cos(visitAngle);
+            }
+            // Circular mean, so that routes around the -π/π boundary get an angle close to their visits.
+            this.angle = Math.atan2(sin, cos);
+        }
+
+        private Route(List<PlanningVisit> visits, double angle) {
+            this.vehicle = null;
+            this.visits = visits;
+            this.angle = angle;
+        }
+    }
+
+    private static final class Part {
+
+        private final List<Route> routes = new ArrayList<>();
+        private final List<PlanningVehicle> emptyVehicles = new ArrayList<>();
+        private final List<PlanningVisit> unassignedVisits = new ArrayList<>();
+        private int visitCount = 0;
+
+        private void add(Route route) {
+            routes.add(route);
+            visitCount += route.visits.size();
+        }
+
+        private double angle() {
+            double sin = 0;
+            double cos = 0;
+            for (Route route : routes) {
+                sin += Math.sin(route.angle) * route.visits.size();
+                cos += Math.cos(route.angle) * route.visits.size();
+            }
+            return Math.atan2(sin, cos);
+        }
+
+        /**
+         * Create a part solution from copies of the vehicles and visits. The copies keep the chains and the shadow
+         * variables of the originals, so the part starts from a consistent, initialized state.
+         *
+         * @param depot the depot
+         * @return part solution
+         */
+        private VehicleRoutingSolution toSolution(PlanningDepot depot) {
+            List<PlanningVehicle> vehicles = new ArrayList<>();
+            List<PlanningVisit> visits = new ArrayList<>();
+            for (Route route : routes) {
+                if (route.vehicle == null) {
+                    continue;
+                }
+                PlanningVehicle vehicle = PlanningVehicleFactory.copyOf(route.vehicle);
+                vehicles.add(vehicle);
+                Standstill previousStandstill = vehicle;
+                for (PlanningVisit original : route.visits) {
+                    PlanningVisit visit = PlanningVisitFactory.copyOf(original);
+                    visit.setPreviousStandstill(previousStandstill);
+                    previousStandstill.setNextVisit(visit);
+                    visit.setVehicle(vehicle);
+                    visit.setPreviousLegDistance(original.getPreviousLegDistance());
+                    visit.setReturnLegDistance(original.getReturnLegDistance());
+                    visits.add(visit);
+                    previousStandstill = visit;
+                }
+            }
+            emptyVehicles.forEach(vehicle -> vehicles.add(PlanningVehicleFactory.copyOf(vehicle)));
+            unassignedVisits.forEach(visit -> visits.add(PlanningVisitFactory.copyOf(visit)));
+            // Also places all vehicles in the depot.
+            return SolutionFactory.solutionFromVisits(vehicles, depot, visits);
+        }
+    }
+}
@@ -31,6 +31,9 @@ import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 /**
  * On large data sets, the constructed solution looks like pizza slices.
  * The order of the slices depends on the {@link PlanningLocation#angleTo} implementation.
+ * <p>
+ * The angle and the round trip distance are cached on the visit (see {@link PlanningVisit#depotAngle}), so they are
+ * not recalculated each time the construction heuristic sorts the visits.
  */
 public class DepotAngleVisitDifficultyWeightFactory
         implements SelectionSorterWeightFactory<VehicleRoutingSolution, PlanningVisit> {
@@ -41,9 +44,8 @@ public class DepotAngleVisitDifficultyWeightFactory
         return new DepotAngleVisitDifficultyWeight(
                 visit,
                 // angle of the line from visit to depot relative to visit→east
-                visit.getLocation().angleTo(depot.getLocation()),
-                visit.getLocation().distanceTo(depot.getLocation())
-                        + depot.getLocation().distanceTo(visit.getLocation()));
+                visit.depotAngle(depot),
+                visit.depotRoundTripDistance(depot));
     }
 
     static class DepotAngleVisitDifficultyWeight implements Comparable<DepotAngleVisitDifficultyWeight> {
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.BadRequestException;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.LocationData;
+
+/**
+ * Reads locations from CSV with columns {@code lat,lng,requiredSkill,description}.
+ * <p>
+ * The header line is optional. Fields can be enclosed in double quotes, a double quote inside a quoted field is
+ * escaped by another double quote. The last two columns can be omitted.
+ */
+final class LocationCsvReader {
+
+    private static final int COLUMNS = 4;
+
+    private LocationCsvReader() {
+        throw new AssertionError("Utility class");
+    }
+
+    static List<LocationData> read(Reader reader) {
+        List<LocationData> locations = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(reader)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                locations.add(parse(line, lineNumber));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read locations", e);
+        }
+        return locations;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.trim().toLowerCase().startsWith("lat");
+    }
+
+    private static LocationData parse(String line, int lineNumber) {
+        List<String> fields = split(line, lineNumber);
+        if (fields.size() < 2 || fields.size() > COLUMNS) {
+            throw new BadRequestException("Line " + lineNumber + " has " + fields.size()
+                    + " fields but 2 to " + COLUMNS + " are expected: " + line);
+        }
+        try {
+            Coordinates coordinates = new Coordinates(
+                    new BigDecimal(fields.get(0).trim()),
+                    new BigDecimal(fields.get(1).trim()));
+            String requiredSkill = fields.size() > 2 ? fields.get(2).trim() : "";
+            String description = fields.size() > 3 ? fields.get(3).trim() : "";
+            return new LocationData(coordinates, requiredSkill, description);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Line " + lineNumber + " has invalid coordinates: " + line, e);
+        }
+    }
+
+    private static List<String> split(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new BadRequestException("Line " + lineNumber + " has an unterminated quoted field: " + line);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
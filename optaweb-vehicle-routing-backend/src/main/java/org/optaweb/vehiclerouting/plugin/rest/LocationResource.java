@@ -16,40 +16,130 @@
 
 package org.optaweb.vehiclerouting.plugin.rest;
 
+import static java.util.stream.Collectors.toList;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
 import org.optaweb.vehiclerouting.plugin.rest.model.PortableLocation;
+import org.optaweb.vehiclerouting.plugin.rest.model.PortableLocationStatus;
+import org.optaweb.vehiclerouting.service.location.AsyncLocationService;
+import org.optaweb.vehiclerouting.service.location.LocationImportService;
 import org.optaweb.vehiclerouting.service.location.LocationService;
+import org.optaweb.vehiclerouting.service.location.LocationStatus;
 
 @Path("api/location")
 public class LocationResource {
 
     private final LocationService locationService;
+    private final AsyncLocationService asyncLocationService;
+    private final LocationImportService locationImportService;
 
     @Inject
-    public LocationResource(LocationService locationService) {
+    public LocationResource(
+            LocationService locationService,
+            AsyncLocationService asyncLocationService,
+            LocationImportService locationImportService) {
         this.locationService = locationService;
+        this.asyncLocationService = asyncLocationService;
+        this.locationImportService = locationImportService;
     }
 
     /**
-     * Create new location.
+     * Create new location. Responds immediately with the ID of the new, pending location. Distances are calculated
+     * in the background and the outcome is published as a {@code locationStatus} server-sent event.
      *
      * @param request new location description
+     * @return 202 Accepted with the pending location's status
      */
-    @Transactional
     @POST
-    public void addLocation(PortableLocation request) {
-        locationService.createLocation(
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response addLocation(PortableLocation request) {
+        Location location = asyncLocationService.createLocation(
                 new Coordinates(request.getLatitude(), request.getLongitude()),
                 request.getRequiredSkill(),
                 request.getDescription());
+        return Response.accepted(new PortableLocationStatus(location.id(), LocationStatus.PENDING)).build();
+    }
+
+    /**
+     * Import many locations at once. The locations are stored in a single transaction, their distances are calculated
+     * in bulk outside of the transaction and the locations are added to the routing plan in one step.
+     * If distances can't be calculated for any of the locations, none of them is imported.
+     * <p>
+     * Each location must have coordinates. A missing required skill or description is imported as empty,
+     * the same as in a {@link #importLocationsCsv(InputStream) CSV import}.
+     *
+     * @param request new locations
+     * @return statuses of the imported locations or 400 Bad Request if the locations couldn't be imported
+     */
+    @POST
+    @Path("import")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importLocations(List<PortableLocation> request) {
+        if (request == null) {
+            throw new BadRequestException("The request has no locations.");
+        }
+        List<LocationData> locationData = new ArrayList<>(request.size());
+        for (int i = 0; i < request.size(); i++) {
+            PortableLocation location = request.get(i);
+            if (location == null) {
+                throw new BadRequestException("Location " + (i + 1) + " is null.");
+            }
+            locationData.add(new LocationData(
+                    new Coordinates(location.getLatitude(), location.getLongitude()),
+                    location.getRequiredSkill(),
+                    location.getDescription()));
+        }
+        return importLocationData(locationData);
+    }
+
+    /**
+     * Import many locations at once from CSV with columns {@code lat,lng,requiredSkill,description}.
+     *
+     * @param csv new locations
+     * @return statuses of the imported locations or 400 Bad Request if the locations couldn't be imported
+     * @see #importLocations(List)
+     */
+    @POST
+    @Path("import")
+    @Consumes("text/csv")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importLocationsCsv(InputStream csv) {
+        return importLocationData(LocationCsvReader.read(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+    }
+
+    private Response importLocationData(List<LocationData> locationData) {
+        Optional<List<Location>> locations = locationImportService.createLocations(locationData);
+        if (!locations.isPresent()) {
+            // The reason has been published as an error message.
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return Response.ok(locations.get().stream()
+                .map(location -> new PortableLocationStatus(location.id(), locationService.status(location.id())))
+                .collect(toList()))
+                .build();
     }
 
     /**
@@ -69,7 +159,6 @@ public class LocationResource {
      *
      * @param request new location description
      */
-    @Transactional
     @PUT
     @Path("{id}")
     public void updateLocation(PortableLocation request, @PathParam("id") long id) {
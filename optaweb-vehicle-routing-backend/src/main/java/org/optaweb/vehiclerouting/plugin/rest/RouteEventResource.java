@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.plugin.rest;
 
+import java.util.Optional;
+
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
@@ -32,8 +34,12 @@ import javax.ws.rs.sse.SseEventSink;
 
 import org.optaweb.vehiclerouting.domain.RoutingPlan;
 import org.optaweb.vehiclerouting.plugin.rest.model.PortableErrorMessage;
+import org.optaweb.vehiclerouting.plugin.rest.model.PortableLocationStatus;
+import org.optaweb.vehiclerouting.plugin.rest.model.PortableRoutingPlan;
+import org.optaweb.vehiclerouting.plugin.rest.model.PortableRoutingPlanDelta;
 import org.optaweb.vehiclerouting.plugin.rest.model.PortableRoutingPlanFactory;
 import org.optaweb.vehiclerouting.service.error.ErrorMessage;
+import org.optaweb.vehiclerouting.service.location.LocationStatusEvent;
 import org.optaweb.vehiclerouting.service.route.RouteListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +55,9 @@ public class RouteEventResource {
 
     private SseBroadcaster sseBroadcaster;
     private OutboundSseEvent.Builder eventBuilder;
+    // The last routing plan sent to clients. Deltas are computed against it.
+    private PortableRoutingPlan lastRoutingPlan;
+    private long sequence = 0;
 
     @Inject
     public RouteEventResource(RouteListener routeListener) {
@@ -64,13 +73,33 @@ public class RouteEventResource {
         }
     }
 
-    public void observeRoute(@Observes RoutingPlan event) {
+    /**
+     * Broadcast a routing plan update. If only routes have changed since the last update, only the changed routes
+     * are sent as a {@code routeDelta}. Otherwise, the full plan is sent as {@code route}. Both carry a sequence number
+     * so that clients can detect a missed update and fetch the full {@link #snapshot() snapshot}.
+     *
+     * @param event new routing plan
+     */
+    public synchronized void observeRoute(@Observes RoutingPlan event) {
+        PortableRoutingPlan routingPlan = PortableRoutingPlanFactory.fromRoutingPlan(event, ++sequence);
+        Optional<PortableRoutingPlanDelta> delta = lastRoutingPlan == null
+                ? Optional.empty()
+                : PortableRoutingPlanFactory.delta(lastRoutingPlan, routingPlan);
+        lastRoutingPlan = routingPlan;
         if (sseBroadcaster != null) {
-            sseBroadcaster.broadcast(eventBuilder
-                    .data(PortableRoutingPlanFactory.fromRoutingPlan(event))
-                    .name("route")
-                    .comment("route update")
-                    .build());
+            if (delta.isPresent()) {
+                sseBroadcaster.broadcast(eventBuilder
+                        .data(delta.get())
+                        .name("routeDelta")
+                        .comment("route delta")
+                        .build());
+            } else {
+                sseBroadcaster.broadcast(eventBuilder
+                        .data(routingPlan)
+                        .name("route")
+                        .comment("route update")
+                        .build());
+            }
         }
     }
 
@@ -84,6 +113,16 @@ public class RouteEventResource {
         }
     }
 
+    public void observeLocationStatus(@Observes LocationStatusEvent event) {
+        if (sseBroadcaster != null) {
+            sseBroadcaster.broadcast(eventBuilder
+                    .data(PortableLocationStatus.fromEvent(event))
+                    .name("locationStatus")
+                    .comment("location status")
+                    .build());
+        }
+    }
+
     @GET
     @Produces(MediaType.SERVER_SENT_EVENTS)
     public void sse(@Context Sse sse, @Context SseEventSink eventSink) {
@@ -94,10 +133,25 @@ public class RouteEventResource {
                     .reconnectDelay(3000);
         }
         OutboundSseEvent sseEvent = eventBuilder
-                .data(PortableRoutingPlanFactory.fromRoutingPlan(routeListener.getBestRoutingPlan()))
+                .data(snapshot())
                 .comment("best route")
                 .build();
         eventSink.send(sseEvent);
         sseBroadcaster.register(eventSink);
     }
+
+    /**
+     * The full routing plan as it was last sent to clients, including its sequence number.
+     *
+     * @return routing plan snapshot
+     */
+    @GET
+    @Path("snapshot")
+    @Produces(MediaType.APPLICATION_JSON)
+    public synchronized PortableRoutingPlan snapshot() {
+        if (lastRoutingPlan == null) {
+            return PortableRoutingPlanFactory.fromRoutingPlan(routeListener.getBestRoutingPlan(), sequence);
+        }
+        return lastRoutingPlan;
+    }
 }
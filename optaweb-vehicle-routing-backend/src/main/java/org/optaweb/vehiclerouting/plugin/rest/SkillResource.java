@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.optaweb.vehiclerouting.plugin.planner.domain.SkillRegistry;
+import org.optaweb.vehiclerouting.plugin.rest.model.PortableSkill;
+
+@Path("api/skill")
+public class SkillResource {
+
+    /**
+     * Skills known to the server. A skill's index is stable while the server is running, so clients can use it
+     * as a compact skill identifier.
+     *
+     * @return all registered skills ordered by index
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<PortableSkill> skills() {
+        List<String> skills = SkillRegistry.skills();
+        List<PortableSkill> portableSkills = new ArrayList<>(skills.size());
+        for (int i = 0; i < skills.size(); i++) {
+            portableSkills.add(new PortableSkill(i, skills.get(i)));
+        }
+        return portableSkills;
+    }
+}
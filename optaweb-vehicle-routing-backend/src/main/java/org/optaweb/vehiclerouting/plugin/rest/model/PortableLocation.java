@@ -35,7 +35,7 @@ public class PortableLocation {
     private final BigDecimal latitude;
     @JsonProperty(value = "lng", required = true)
     private final BigDecimal longitude;
-    @JsonProperty(value = "requiredSkill", required = true)
+    @JsonProperty(value = "requiredSkill")
     private final String requiredSkill;
 
     private final String description;
@@ -58,10 +58,11 @@ public class PortableLocation {
             @JsonProperty(value = "requiredSkill") String requiredSkill,
             @JsonProperty(value = "description") String description) {
         this.id = id;
-        this.latitude = Objects.requireNonNull(latitude);
-        this.longitude = Objects.requireNonNull(longitude);
-        this.requiredSkill = Objects.requireNonNull(requiredSkill);
-        this.description = Objects.requireNonNull(description);
+        this.latitude = Objects.requireNonNull(latitude, "lat must not be null");
+        this.longitude = Objects.requireNonNull(longitude, "lng must not be null");
+        // Same as an omitted column in a CSV import.
+        this.requiredSkill = requiredSkill == null ? "" : requiredSkill;
+        this.description = description == null ? "" : description;
     }
 
     public long getId() {
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest.model;
+
+import java.util.Objects;
+
+import org.optaweb.vehiclerouting.service.location.LocationStatus;
+import org.optaweb.vehiclerouting.service.location.LocationStatusEvent;
+
+/**
+ * Portable location status.
+ */
+public class PortableLocationStatus {
+
+    private final long id;
+    private final LocationStatus status;
+
+    public static PortableLocationStatus fromEvent(LocationStatusEvent event) {
+        return new PortableLocationStatus(event.locationId(), event.status());
+    }
+
+    public PortableLocationStatus(long id, LocationStatus status) {
+        this.id = id;
+        this.status = Objects.requireNonNull(status);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocationStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PortableLocationStatus that = (PortableLocationStatus) o;
+        return id == that.id &&
+                status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status);
+    }
+
+    @Override
+    public String toString() {
+        return "PortableLocationStatus{" +
+                "id=" + id +
+                ", status=" + status +
+                '}';
+    }
+}
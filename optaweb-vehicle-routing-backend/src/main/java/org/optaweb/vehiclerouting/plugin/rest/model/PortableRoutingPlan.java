@@ -25,6 +25,7 @@ import org.optaweb.vehiclerouting.domain.RoutingPlan;
  */
 public class PortableRoutingPlan {
 
+    private final long sequence;
     private final PortableDistance distance;
     private final List<PortableVehicle> vehicles;
     private final PortableLocation depot;
@@ -32,12 +33,14 @@ public class PortableRoutingPlan {
     private final List<PortableRoute> routes;
 
     PortableRoutingPlan(
+            long sequence,
             PortableDistance distance,
             List<PortableVehicle> vehicles,
             PortableLocation depot,
             List<PortableLocation> visits,
             List<PortableRoute> routes) {
         // TODO require non-null
+        this.sequence = sequence;
         this.distance = distance;
         this.vehicles = vehicles;
         this.depot = depot;
@@ -45,6 +48,10 @@ public class PortableRoutingPlan {
         this.routes = routes;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
     public PortableDistance getDistance() {
         return distance;
     }
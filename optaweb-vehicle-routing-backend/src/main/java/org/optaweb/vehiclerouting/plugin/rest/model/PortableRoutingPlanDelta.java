@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Changes of a {@link PortableRoutingPlan} since the previous update. Contains only routes whose visit sequence has
+ * changed. The sequence number allows clients to detect a missed update and request a full routing plan.
+ */
+public class PortableRoutingPlanDelta {
+
+    private final long sequence;
+    private final PortableDistance distance;
+    private final List<PortableRoute> routes;
+
+    PortableRoutingPlanDelta(long sequence, PortableDistance distance, List<PortableRoute> routes) {
+        this.sequence = sequence;
+        this.distance = Objects.requireNonNull(distance);
+        this.routes = Objects.requireNonNull(routes);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public PortableDistance getDistance() {
+        return distance;
+    }
+
+    public List<PortableRoute> getRoutes() {
+        return routes;
+    }
+}
@@ -17,9 +17,13 @@
 package org.optaweb.vehiclerouting.plugin.rest.model;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
@@ -35,7 +39,14 @@ public class PortableRoutingPlanFactory {
         throw new AssertionError("Utility class");
     }
 
-    public static PortableRoutingPlan fromRoutingPlan(RoutingPlan routingPlan) {
+    /**
+     * Create a full portable routing plan.
+     *
+     * @param routingPlan routing plan
+     * @param sequence sequence number of the routing plan update
+     * @return portable routing plan
+     */
+    public static PortableRoutingPlan fromRoutingPlan(RoutingPlan routingPlan, long sequence) {
         PortableDistance distance = PortableDistance.fromDistance(routingPlan.distance());
         List<PortableVehicle> vehicles = portableVehicles(routingPlan.vehicles());
         PortableLocation depot = routingPlan.depot().map(PortableLocation::fromLocation).orElse(null);
@@ -47,7 +58,38 @@ public class PortableRoutingPlanFactory {
                         portableVisits(routeWithTrack.visits()),
                         portableTrack(routeWithTrack.track())))
                 .collect(toList());
-        return new PortableRoutingPlan(distance, vehicles, depot, visits, routes);
+        return new PortableRoutingPlan(sequence, distance, vehicles, depot, visits, routes);
+    }
+
+    /**
+     * Describe the difference between two consecutive routing plans as a delta containing only the routes
+     * whose visit sequence has changed. A delta can only be created if the plans have the same depot, vehicles
+     * and visits.
+     *
+     * @param previous routing plan sent to clients last time
+     * @param current new routing plan
+     * @return the delta or empty if the plans differ in more than just routes and the full plan has to be sent
+     */
+    public static Optional<PortableRoutingPlanDelta> delta(PortableRoutingPlan previous, PortableRoutingPlan current) {
+        if (!Objects.equals(previous.getDepot(), current.getDepot())
+                || !previous.getVehicles().equals(current.getVehicles())
+                || !previous.getVisits().equals(current.getVisits())
+                || previous.getRoutes().size() != current.getRoutes().size()) {
+            return Optional.empty();
+        }
+        Map<Long, PortableRoute> previousRoutes = previous.getRoutes().stream()
+                .collect(toMap(route -> route.getVehicle().getId(), route -> route));
+        List<PortableRoute> changedRoutes = new ArrayList<>();
+        for (PortableRoute route : current.getRoutes()) {
+            PortableRoute previousRoute = previousRoutes.get(route.getVehicle().getId());
+            if (previousRoute == null) {
+                return Optional.empty();
+            }
+            if (!previousRoute.getVisits().equals(route.getVisits())) {
+                changedRoutes.add(route);
+            }
+        }
+        return Optional.of(new PortableRoutingPlanDelta(current.getSequence(), current.getDistance(), changedRoutes));
     }
 
     private static List<List<PortableCoordinates>> portableTrack(List<List<Coordinates>> track) {
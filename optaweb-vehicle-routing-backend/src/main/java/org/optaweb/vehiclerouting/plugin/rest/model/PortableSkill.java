@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest.model;
+
+import java.util.Objects;
+
+import org.optaweb.vehiclerouting.plugin.planner.domain.SkillRegistry;
+
+/**
+ * Portable skill. Its index is assigned by {@link SkillRegistry}.
+ */
+public class PortableSkill {
+
+    private final int index;
+    private final String name;
+
+    public PortableSkill(int index, String name) {
+        this.index = index;
+        this.name = Objects.requireNonNull(name);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PortableSkill that = (PortableSkill) o;
+        return index == that.index &&
+                name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, name);
+    }
+
+    @Override
+    public String toString() {
+        return "PortableSkill{" +
+                "index=" + index +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -69,7 +69,7 @@ public class PortableVehicle {
         }
         PortableVehicle vehicle = (PortableVehicle) o;
         return id == vehicle.id &&
-                skillSet == vehicle.skillSet &&
+                Objects.equals(skillSet, vehicle.skillSet) &&
                 capacity == vehicle.capacity &&
                 name.equals(vehicle.name);
     }
@@ -18,6 +18,7 @@ package org.optaweb.vehiclerouting.plugin.routing;
 
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.StreamSupport;
 
@@ -31,9 +32,23 @@ import org.optaweb.vehiclerouting.service.region.BoundingBox;
 import org.optaweb.vehiclerouting.service.region.Region;
 import org.optaweb.vehiclerouting.service.route.Router;
 
-import com.graphhopper.GHRequest;
-import com.graphhopper.GHResponse;
 import com.graphhopper.reader.osm.GraphHopperOSM;
+import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.QueryGraph;
+import com.graphhopper.routing.RoutingAlgorithmFactory;
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.util.FlagEncoderFactory;
+import com.graphhopper.routing.util.HintsMap;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.DouglasPeucker;
+import com.graphhopper.util.Parameters;
 import com.graphhopper.util.PointList;
 import com.graphhopper.util.shapes.BBox;
 
@@ -46,21 +61,43 @@ import io.quarkus.arc.properties.IfBuildProperty;
 @IfBuildProperty(name = "app.routing.engine", stringValue = "GRAPHHOPPER", enableIfMissing = true)
 class GraphHopperRouter implements Router, DistanceCalculator, Region {
 
+    /**
+     * Same as GraphHopper's default {@code routing.way_point_max_distance} used to simplify routes.
+     */
+    private static final double WAY_POINT_MAX_DISTANCE = 1;
+
     private final GraphHopperOSM graphHopper;
+    private final FlagEncoder encoder;
+    private final SnapCache snapCache;
+    private final RoutingAlgorithmFactory algorithmFactory;
+    private final Graph routingGraph;
+    private final Weighting routingWeighting;
 
     @Inject
-    GraphHopperRouter(GraphHopperOSM graphHopper) {
+    GraphHopperRouter(GraphHopperOSM graphHopper, RoutingProperties routingProperties) {
         this.graphHopper = graphHopper;
+        this.encoder = graphHopper.getEncodingManager().getEncoder(FlagEncoderFactory.CAR);
+        this.snapCache = new SnapCache(
+                graphHopper.getLocationIndex(),
+                DefaultEdgeFilter.allEdges(encoder),
+                routingProperties.getSnapCacheMaxSize());
+        // Point-to-point paths are searched on the contraction hierarchy if GraphHopper has prepared one,
+        // the same way GraphHopper.route() does it.
+        this.algorithmFactory = graphHopper.getAlgorithmFactory(
+                new HintsMap("fastest").setVehicle(FlagEncoderFactory.CAR));
+        if (algorithmFactory instanceof PrepareContractionHierarchies) {
+            this.routingWeighting = ((PrepareContractionHierarchies) algorithmFactory).getWeighting();
+            this.routingGraph = graphHopper.getGraphHopperStorage().getGraph(CHGraph.class, routingWeighting);
+        } else {
+            this.routingGraph = graphHopper.getGraphHopperStorage();
+            this.routingWeighting = weighting(routingGraph);
+        }
     }
 
     @Override
     public List<Coordinates> getPath(Coordinates from, Coordinates to) {
-        GHRequest ghRequest = new GHRequest(
-                from.latitude().doubleValue(),
-                from.longitude().doubleValue(),
-                to.latitude().doubleValue(),
-                to.longitude().doubleValue());
-        PointList points = graphHopper.route(ghRequest).getBest().getPoints();
+        PointList points = calcPath(from, to).calcPoints();
+        new DouglasPeucker().setMaxDistance(WAY_POINT_MAX_DISTANCE).simplify(points);
         return StreamSupport.stream(points.spliterator(), false)
                 .map(ghPoint3D -> Coordinates.valueOf(ghPoint3D.lat, ghPoint3D.lon))
                 .collect(toList());
@@ -68,17 +105,89 @@ class GraphHopperRouter implements Router, DistanceCalculator, Region {
 
     @Override
     public long travelTimeMillis(Coordinates from, Coordinates to) {
-        GHRequest ghRequest = new GHRequest(
-                from.latitude().doubleValue(),
-                from.longitude().doubleValue(),
-                to.latitude().doubleValue(),
-                to.longitude().doubleValue());
-        GHResponse ghResponse = graphHopper.route(ghRequest);
+        return calcPath(from, to).getTime();
+    }
+
+    /**
+     * Find the fastest path between two points. Both points are snapped to the road network using the snap cache
+     * so repeated requests for the same location don't search the location index again.
+     * The search runs on the contraction hierarchy if it's available.
+     *
+     * @param from path start
+     * @param to path end
+     * @return path that has been found
+     */
+    private Path calcPath(Coordinates from, Coordinates to) {
+        QueryResult fromSnap = snapCache.snap(from);
+        QueryResult toSnap = snapCache.snap(to);
+        QueryGraph queryGraph = new QueryGraph(routingGraph);
+        queryGraph.lookup(fromSnap, toSnap);
+        AlgorithmOptions algorithmOptions = AlgorithmOptions.start()
+                .algorithm(Parameters.Algorithms.DIJKSTRA_BI)
+                .traversalMode(TraversalMode.NODE_BASED)
+                .weighting(routingWeighting)
+                .build();
+        Path path = algorithmFactory.createAlgo(queryGraph, algorithmOptions)
+                .calcPath(fromSnap.getClosestNode(), toSnap.getClosestNode());
         // TODO return wrapper that can hold both the result and error explanation instead of throwing exception
-        if (ghResponse.hasErrors()) {
-            throw new DistanceCalculationException("No route from " + from + " to " + to, ghResponse.getErrors().get(0));
+        if (!path.isFound()) {
+            throw new DistanceCalculationException("No route from " + from + " to " + to);
+        }
+        return path;
+    }
+
+    private Weighting weighting(Graph graph) {
+        return graphHopper.createWeighting(new HintsMap("fastest"), encoder, graph);
+    }
+
+    @Override
+    public long[] travelTimesFrom(Coordinates from, List<Coordinates> to) {
+        long[] travelTimes = travelTimes(from, to, false);
+        for (int i = 0; i < travelTimes.length; i++) {
+            if (travelTimes[i] == TravelTimeSearch.UNREACHABLE) {
+                throw new DistanceCalculationException("No route from " + from + " to " + to.get(i));
+            }
+        }
+        return travelTimes;
+    }
+
+    @Override
+    public long[] travelTimesTo(List<Coordinates> from, Coordinates to) {
+        long[] travelTimes = travelTimes(to, from, true);
+        for (int i = 0; i < travelTimes.length; i++) {
+            if (travelTimes[i] == TravelTimeSearch.UNREACHABLE) {
+                throw new DistanceCalculationException("No route from " + from.get(i) + " to " + to);
+            }
+        }
+        return travelTimes;
+    }
+
+    /**
+     * Snap all coordinates to the road network once and run a single search from the source that settles all targets.
+     *
+     * @param source source of the search
+     * @param targets targets of the search
+     * @param reverse whether to calculate travel times from targets to the source instead of the other way around
+     * @return travel times in milliseconds, in the order of targets
+     */
+    private long[] travelTimes(Coordinates source, List<Coordinates> targets, boolean reverse) {
+        if (targets.isEmpty()) {
+            return new long[0];
+        }
+        List<QueryResult> queryResults = new ArrayList<>(targets.size() + 1);
+        queryResults.add(snapCache.snap(source));
+        for (Coordinates target : targets) {
+            queryResults.add(snapCache.snap(target));
+        }
+        // Virtual nodes are created for snapped points that lie in the middle of an edge.
+        QueryGraph queryGraph = new QueryGraph(graphHopper.getGraphHopperStorage());
+        queryGraph.lookup(queryResults);
+        int[] targetNodes = new int[targets.size()];
+        for (int i = 0; i < targetNodes.length; i++) {
+            targetNodes[i] = queryResults.get(i + 1).getClosestNode();
         }
-        return ghResponse.getBest().getTime();
+        TravelTimeSearch search = new TravelTimeSearch(queryGraph, weighting(queryGraph), encoder, reverse);
+        return search.search(queryResults.get(0).getClosestNode(), targetNodes);
     }
 
     @Override
@@ -48,6 +48,11 @@ public class RoutingProperties {
      */
     private RoutingEngine engine;
 
+    /**
+     * Maximum number of coordinates whose position on the road network is kept in the snap cache.
+     */
+    private long snapCacheMaxSize = 10_000;
+
     public String getOsmDir() {
         return osmDir;
     }
@@ -88,6 +93,14 @@ public class RoutingProperties {
         this.engine = engine;
     }
 
+    public long getSnapCacheMaxSize() {
+        return snapCacheMaxSize;
+    }
+
+    public void setSnapCacheMaxSize(long snapCacheMaxSize) {
+        this.snapCacheMaxSize = snapCacheMaxSize;
+    }
+
     public enum RoutingEngine {
         AIR,
         GRAPHHOPPER
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.routing;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculationException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.Helper;
+
+/**
+ * Remembers where coordinates snap to the road network so that the location index is only searched once
+ * for each location. A location's snapped edge never changes while the graph is loaded.
+ * <p>
+ * Snapped points are handed out as fresh {@link QueryResult}s because {@code QueryGraph.lookup()} modifies them.
+ */
+class SnapCache {
+
+    private final LocationIndex locationIndex;
+    private final EdgeFilter edgeFilter;
+    private final Cache<Coordinates, Snap> cache;
+
+    SnapCache(LocationIndex locationIndex, EdgeFilter edgeFilter, long maxSize) {
+        this.locationIndex = locationIndex;
+        this.edgeFilter = edgeFilter;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Snap coordinates to the closest road.
+     *
+     * @param coordinates coordinates
+     * @return a new, valid query result
+     * @throws DistanceCalculationException if there is no road near the coordinates
+     */
+    QueryResult snap(Coordinates coordinates) {
+        Snap snap = cache.getIfPresent(coordinates);
+        if (snap == null) {
+            QueryResult queryResult = locationIndex.findClosest(
+                    coordinates.latitude().doubleValue(),
+                    coordinates.longitude().doubleValue(),
+                    edgeFilter);
+            if (!queryResult.isValid()) {
+                throw new DistanceCalculationException("Cannot find a road near " + coordinates);
+            }
+            snap = new Snap(queryResult);
+            cache.put(coordinates, snap);
+        }
+        return snap.toQueryResult();
+    }
+
+    /**
+     * Immutable copy of a query result taken before it has been looked up in a query graph.
+     */
+    private static final class Snap {
+
+        private final double queryLat;
+        private final double queryLon;
+        private final int closestNode;
+        private final EdgeIteratorState closestEdge;
+        private final int wayIndex;
+        private final QueryResult.Position snappedPosition;
+        private final double queryDistance;
+
+        private Snap(QueryResult queryResult) {
+            this.queryLat = queryResult.getQueryPoint().lat;
+            this.queryLon = queryResult.getQueryPoint().lon;
+            this.closestNode = queryResult.getClosestNode();
+            this.closestEdge = queryResult.getClosestEdge();
+            this.wayIndex = queryResult.getWayIndex();
+            this.snappedPosition = queryResult.getSnappedPosition();
+            this.queryDistance = queryResult.getQueryDistance();
+        }
+
+        private QueryResult toQueryResult() {
+            QueryResult queryResult = new QueryResult(queryLat, queryLon);
+            queryResult.setClosestNode(closestNode);
+            queryResult.setClosestEdge(closestEdge);
+            queryResult.setWayIndex(wayIndex);
+            queryResult.setSnappedPosition(snappedPosition);
+            queryResult.setQueryDistance(queryDistance);
+            queryResult.calcSnappedPoint(Helper.DIST_EARTH);
+            return queryResult;
+        }
+    }
+}
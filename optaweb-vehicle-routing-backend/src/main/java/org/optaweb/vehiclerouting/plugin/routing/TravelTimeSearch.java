@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+/**
+ * Single-source travel time search (Dijkstra's algorithm) that settles many targets in one traversal of the graph.
+ * <p>
+ * A forward search computes travel times from the source to each target. A reverse search follows edges against
+ * their direction and computes travel times from each target to the source.
+ * <p>
+ * The search state is kept in a sparse map, so searches running in parallel don't each allocate arrays sized
+ * to the whole graph.
+ */
+class TravelTimeSearch {
+
+    static final long UNREACHABLE = -1;
+
+    private static final int INITIAL_CAPACITY = 1000;
+
+    private final Weighting weighting;
+    private final EdgeExplorer edgeExplorer;
+    private final boolean reverse;
+
+    TravelTimeSearch(Graph graph, Weighting weighting, FlagEncoder encoder, boolean reverse) {
+        this.weighting = weighting;
+        this.edgeExplorer = graph.createEdgeExplorer(
+                reverse ? DefaultEdgeFilter.inEdges(encoder) : DefaultEdgeFilter.outEdges(encoder));
+        this.reverse = reverse;
+    }
+
+    /**
+     * Run the search until all targets are settled.
+     *
+     * @param sourceNode source node
+     * @param targetNodes target nodes (may contain duplicates and the source node)
+     * @return travel time in milliseconds for each target or {@link #UNREACHABLE}
+     */
+    long[] search(int sourceNode, int[] targetNodes) {
+        long[] travelTimes = new long[targetNodes.length];
+        Arrays.fill(travelTimes, UNREACHABLE);
+
+        Map<Integer, List<Integer>> pendingTargets = new HashMap<>();
+        for (int i = 0; i < targetNodes.length; i++) {
+            pendingTargets.computeIfAbsent(targetNodes[i], node -> new ArrayList<>(1)).add(i);
+        }
+
+        // Only nodes reached by the search are stored, so memory use is proportional to the explored part
+        // of the graph rather than to the whole graph. The search stops as soon as the last target is settled.
+        GHIntObjectHashMap<NodeEntry> entries = new GHIntObjectHashMap<>(INITIAL_CAPACITY);
+        PriorityQueue<NodeEntry> queue = new PriorityQueue<>();
+        NodeEntry sourceEntry = new NodeEntry(sourceNode, 0, 0);
+        entries.put(sourceNode, sourceEntry);
+        queue.add(sourceEntry);
+        while (!queue.isEmpty() && !pendingTargets.isEmpty()) {
+            NodeEntry entry = queue.poll();
+            if (entry.settled || entries.get(entry.node) != entry) {
+                continue; // stale queue entry
+            }
+            entry.settled = true;
+            List<Integer> targetPositions = pendingTargets.remove(entry.node);
+            if (targetPositions != null) {
+                for (int position : targetPositions) {
+                    travelTimes[position] = entry.millis;
+                }
+            }
+            EdgeIterator edge = edgeExplorer.setBaseNode(entry.node);
+            while (edge.next()) {
+                int adjacentNode = edge.getAdjNode();
+                NodeEntry adjacentEntry = entries.get(adjacentNode);
+                if (adjacentEntry != null && adjacentEntry.settled) {
+                    continue;
+                }
+                double edgeWeight = weighting.calcWeight(edge, reverse, EdgeIterator.NO_EDGE);
+                if (Double.isInfinite(edgeWeight)) {
+                    continue;
+                }
+                double weight = entry.weight + edgeWeight;
+                if (adjacentEntry == null || weight < adjacentEntry.weight) {
+                    long millis = entry.millis + weighting.calcMillis(edge, reverse, EdgeIterator.NO_EDGE);
+                    NodeEntry improvedEntry = new NodeEntry(adjacentNode, weight, millis);
+                    entries.put(adjacentNode, improvedEntry);
+                    queue.add(improvedEntry);
+                }
+            }
+        }
+        return travelTimes;
+    }
+
+    private static class NodeEntry implements Comparable<NodeEntry> {
+
+        private final int node;
+        private final double weight;
+        private final long millis;
+        private boolean settled;
+
+        NodeEntry(int node, double weight, long millis) {
+            this.node = node;
+            this.weight = weight;
+            this.millis = millis;
+        }
+
+        @Override
+        public int compareTo(NodeEntry other) {
+            return Double.compare(weight, other.weight);
+        }
+    }
+}
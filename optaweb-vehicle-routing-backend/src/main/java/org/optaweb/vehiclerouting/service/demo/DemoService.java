@@ -28,6 +28,7 @@ import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.domain.RoutingProblem;
 import org.optaweb.vehiclerouting.domain.Vehicle;
 import org.optaweb.vehiclerouting.service.demo.dataset.DataSetMarshaller;
+import org.optaweb.vehiclerouting.service.location.LocationImportService;
 import org.optaweb.vehiclerouting.service.location.LocationRepository;
 import org.optaweb.vehiclerouting.service.location.LocationService;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleRepository;
@@ -43,6 +44,7 @@ public class DemoService {
 
     private final RoutingProblemList routingProblems;
     private final LocationService locationService;
+    private final LocationImportService locationImportService;
     private final LocationRepository locationRepository;
     private final VehicleService vehicleService;
     private final VehicleRepository vehicleRepository;
@@ -52,12 +54,14 @@ public class DemoService {
     public DemoService(
             RoutingProblemList routingProblems,
             LocationService locationService,
+            LocationImportService locationImportService,
             LocationRepository locationRepository,
             VehicleService vehicleService,
             VehicleRepository vehicleRepository,
             DataSetMarshaller dataSetMarshaller) {
         this.routingProblems = routingProblems;
         this.locationService = locationService;
+        this.locationImportService = locationImportService;
         this.locationRepository = locationRepository;
         this.vehicleService = vehicleService;
         this.vehicleRepository = vehicleRepository;
@@ -74,7 +78,12 @@ public class DemoService {
         routingProblem.depot().ifPresent(depot -> addWithRetry(depot.coordinates(), "depot", depot.description()));
 
         // TODO start randomizing only after using all available cities (=> reproducibility for small demos)
-        routingProblem.visits().forEach(visit -> addWithRetry(visit.coordinates(), visit.requiredSkill(), visit.description()));
+        // Try adding all visits in one batch, which calculates their distances in bulk. Fall back to adding them
+        // one by one with retries if that fails (e.g. when one of the visits isn't reachable by road).
+        if (!locationImportService.createLocations(routingProblem.visits()).isPresent()) {
+            routingProblem.visits()
+                    .forEach(visit -> addWithRetry(visit.coordinates(), visit.requiredSkill(), visit.description()));
+        }
         routingProblem.vehicles().forEach(vehicleService::createVehicle);
     }
 
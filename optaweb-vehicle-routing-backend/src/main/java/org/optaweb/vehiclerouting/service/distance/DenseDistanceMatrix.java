@@ -0,0 +1,448 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Primitive storage of travel times between locations.
+ * <p>
+ * Every location is assigned a dense, zero-based index when it is added. Travel times are stored in a single flat
+ * {@code long[]} in row-major order so reading a cell is an array access that neither hashes nor allocates.
+ * The backing array grows geometrically, so adding a location costs amortized O(N) copied cells.
+ * <p>
+ * In compact mode, cells are stored in an {@code int[]} instead, which halves the memory footprint. Travel times
+ * longer than {@link Integer#MAX_VALUE} milliseconds (about 24 days) can't be stored in compact mode and are rejected.
+ * <p>
+ * Indexes of removed locations are reused by locations added later, so the footprint is proportional to the highest
+ * number of locations that have existed at the same time, not to the number of locations ever added. Every index has
+ * a generation, which changes when the index is reused. A row handle that remembers the generation of its index can
+ * tell whether the index still belongs to its location.
+ * <p>
+ * A removed location's index is retired until it is {@link #releaseIndex(int) released}, which happens once nothing
+ * reads it anymore (e.g. the solver has processed the removal). Only released indexes are reused, and their row and
+ * column are cleared at that point. So a stale reader keeps getting the removed location's distances and never
+ * sees cleared cells or another location's distances.
+ * <p>
+ * Writes that change the set of locations are serialized. Reads are lock-free and may happen on any thread
+ * (typically the solver thread). The location index and the backing array are published together as an immutable
+ * {@link Storage} through a volatile field, so a reader always sees a consistent pair.
+ */
+final class DenseDistanceMatrix {
+
+    static final int NO_INDEX = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    // Largest capacity whose square still fits in an array.
+    static final int MAX_CAPACITY = 46340;
+
+    private final boolean compact;
+    private final int maxCapacity;
+    private volatile Storage storage;
+    private int nextIndex = 0;
+    private final Deque<Integer> freeIndexes = new ArrayDeque<>();
+    private final Set<Integer> retiredIndexes = new HashSet<>();
+
+    /**
+     * Create an empty matrix.
+     *
+     * @param compact whether to store travel times as {@code int} instead of {@code long}
+     */
+    DenseDistanceMatrix(boolean compact) {
+        this(compact, MAX_CAPACITY);
+    }
+
+    /**
+     * Create an empty matrix that holds at most the given number of locations.
+     *
+     * @param compact whether to store travel times as {@code int} instead of {@code long}
+     * @param maxCapacity maximum number of locations, at most {@link #MAX_CAPACITY}
+     */
+    DenseDistanceMatrix(boolean compact, int maxCapacity) {
+        if (maxCapacity < 1 || maxCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Maximum capacity (" + maxCapacity + ") must be between 1 and " + MAX_CAPACITY + ".");
+        }
+        this.compact = compact;
+        this.maxCapacity = maxCapacity;
+        this.storage = Storage.empty(compact);
+    }
+
+    /**
+     * Assign a dense index to the location. The index's row and column are zero until they are {@link #set set}.
+     * The index of a previously removed and released location is reused if there is one.
+     *
+     * @param locationId location ID
+     * @return index of the location (the existing one if the location has already been added)
+     */
+    synchronized int addLocation(long locationId) {
+        Storage current = storage;
+        int existingIndex = current.index.get(locationId);
+        if (existingIndex != NO_INDEX) {
+            return existingIndex;
+        }
+        Integer freeIndex = freeIndexes.poll();
+        if (freeIndex != null) {
+            current.clearRowAndColumn(freeIndex);
+            storage = current.withNextGeneration(freeIndex).withLocation(locationId, freeIndex);
+            return freeIndex;
+        }
+        int newIndex = nextIndex++;
+        storage = current.withCapacity(newIndex + 1, maxCapacity).withLocation(locationId, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Forget the location. Its index will no longer be resolved. The index is retired until it is
+     * {@link #releaseIndex(int) released}, then it will be reused by a location added later.
+     *
+     * @param locationId location ID
+     * @return the removed location's index or {@link #NO_INDEX} if the location is unknown
+     */
+    synchronized int removeLocation(long locationId) {
+        Storage current = storage;
+        int removedIndex = current.index.get(locationId);
+        if (removedIndex != NO_INDEX) {
+            storage = current.withoutLocation(locationId);
+            retiredIndexes.add(removedIndex);
+        }
+        return removedIndex;
+    }
+
+    /**
+     * Allow a retired index to be reused. Does nothing if the index isn't retired, for example because the matrix
+     * has been cleared since the index was retired.
+     *
+     * @param index index of a removed location
+     */
+    synchronized void releaseIndex(int index) {
+        if (retiredIndexes.remove(index)) {
+            freeIndexes.add(index);
+        }
+    }
+
+    synchronized void clear() {
+        storage = Storage.empty(compact);
+        nextIndex = 0;
+        freeIndexes.clear();
+        retiredIndexes.clear();
+    }
+
+    /**
+     * Index of the given location.
+     *
+     * @param locationId location ID
+     * @return location's index or {@link #NO_INDEX} if the location is unknown
+     */
+    int indexOf(long locationId) {
+        return storage.index.get(locationId);
+    }
+
+    /**
+     * Generation of the given index. It changes every time the index is reused by another location.
+     *
+     * @param index location index
+     * @return index generation
+     */
+    int generationOf(int index) {
+        return storage.generations[index];
+    }
+
+    /**
+     * Travel time between two indexes.
+     *
+     * @param fromIndex row index
+     * @param toIndex column index
+     * @return travel time in milliseconds
+     */
+    long get(int fromIndex, int toIndex) {
+        Storage current = storage;
+        int cell = fromIndex * current.capacity + toIndex;
+        return compact ? current.compactCells[cell] : current.cells[cell];
+    }
+
+    /**
+     * Store travel time between two indexes. Cells can be written concurrently but not while a location
+     * is being added.
+     *
+     * @param fromIndex row index
+     * @param toIndex column index
+     * @param millis travel time in milliseconds
+     * @throws DistanceCalculationException if the matrix is compact and the travel time doesn't fit in an {@code int}
+     */
+    void set(int fromIndex, int toIndex, long millis) {
+        Storage current = storage;
+        int cell = fromIndex * current.capacity + toIndex;
+        if (compact) {
+            current.compactCells[cell] = toCompact(millis);
+        } else {
+            current.cells[cell] = millis;
+        }
+    }
+
+    /**
+     * Store travel times from one index to all indexes at once.
+     *
+     * @param fromIndex row index
+     * @param millis travel times in milliseconds, where {@code millis[i]} is the travel time to index {@code i}
+     * @throws DistanceCalculationException if the matrix is compact and a travel time doesn't fit in an {@code int}
+     */
+    void setRow(int fromIndex, long[] millis) {
+        Storage current = storage;
+        int firstCell = fromIndex * current.capacity;
+        if (compact) {
+            for (int i = 0; i < millis.length; i++) {
+                current.compactCells[firstCell + i] = toCompact(millis[i]);
+            }
+        } else {
+            System.arraycopy(millis, 0, current.cells, firstCell, millis.length);
+        }
+    }
+
+    /**
+     * Whether travel times are stored as {@code int}.
+     *
+     * @return {@code true} if the matrix is compact
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Check that the travel time can be stored in this matrix.
+     *
+     * @param millis travel time in milliseconds
+     * @return {@code true} if the travel time can be stored
+     */
+    boolean canStore(long millis) {
+        return !compact || millis <= Integer.MAX_VALUE;
+    }
+
+    private static int toCompact(long millis) {
+        if (millis > Integer.MAX_VALUE) {
+            throw new DistanceCalculationException("Travel time (" + millis + " ms) is too long to be stored"
+                    + " in the compact distance matrix (max " + Integer.MAX_VALUE + " ms).");
+        }
+        return (int) millis;
+    }
+
+    /**
+     * Number of locations in the matrix.
+     *
+     * @return number of locations
+     */
+    int size() {
+        return storage.index.size;
+    }
+
+    /**
+     * Number of locations the matrix can hold without growing. Intended for diagnostics.
+     *
+     * @return capacity of the matrix
+     */
+    int capacity() {
+        return storage.capacity;
+    }
+
+    /**
+     * IDs of all locations in the matrix. Intended for diagnostics.
+     *
+     * @return location IDs
+     */
+    List<Long> locationIds() {
+        return storage.index.keys();
+    }
+
+    /**
+     * Immutable triple of a location index, the generations of indexes and the cells they index into.
+     * The cells themselves are mutable. Exactly one of {@code cells} and {@code compactCells} is used.
+     */
+    private static final class Storage {
+
+        private final LocationIndex index;
+        private final int[] generations;
+        private final long[] cells;
+        private final int[] compactCells;
+        private final int capacity;
+
+        private Storage(LocationIndex index, int[] generations, long[] cells, int[] compactCells, int capacity) {
+            this.index = index;
+            this.generations = generations;
+            this.cells = cells;
+            this.compactCells = compactCells;
+            this.capacity = capacity;
+        }
+
+        static Storage empty(boolean compact) {
+            return compact
+                    ? new Storage(LocationIndex.EMPTY, new int[0], null, new int[0], 0)
+                    : new Storage(LocationIndex.EMPTY, new int[0], new long[0], null, 0);
+        }
+
+        Storage withCapacity(int minCapacity, int maxCapacity) {
+            if (minCapacity <= capacity) {
+                return this;
+            }
+            if (minCapacity > maxCapacity) {
+                throw new IllegalStateException(
+                        "The distance matrix can't hold more than " + maxCapacity + " locations.");
+            }
+            int newCapacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+            while (newCapacity < minCapacity) {
+                newCapacity += newCapacity >> 1;
+            }
+            newCapacity = Math.min(newCapacity, maxCapacity);
+            long[] newCells = null;
+            int[] newCompactCells = null;
+            if (cells != null) {
+                newCells = new long[newCapacity * newCapacity];
+                for (int row = 0; row < capacity; row++) {
+                    System.arraycopy(cells, row * capacity, newCells, row * newCapacity, capacity);
+                }
+            } else {
+                newCompactCells = new int[newCapacity * newCapacity];
+                for (int row = 0; row < capacity; row++) {
+                    System.arraycopy(compactCells, row * capacity, newCompactCells, row * newCapacity, capacity);
+                }
+            }
+            return new Storage(index, Arrays.copyOf(generations, newCapacity), newCells, newCompactCells, newCapacity);
+        }
+
+        Storage withNextGeneration(int reusedIndex) {
+            int[] newGenerations = generations.clone();
+            newGenerations[reusedIndex]++;
+            return new Storage(index, newGenerations, cells, compactCells, capacity);
+        }
+
+        Storage withLocation(long locationId, int locationIndex) {
+            return new Storage(index.with(locationId, locationIndex), generations, cells, compactCells, capacity);
+        }
+
+        Storage withoutLocation(long locationId) {
+            return new Storage(index.without(locationId), generations, cells, compactCells, capacity);
+        }
+
+        void clearRowAndColumn(int reusedIndex) {
+            int firstCell = reusedIndex * capacity;
+            if (cells != null) {
+                Arrays.fill(cells, firstCell, firstCell + capacity, 0);
+                for (int row = 0; row < capacity; row++) {
+                    cells[row * capacity + reusedIndex] = 0;
+                }
+            } else {
+                Arrays.fill(compactCells, firstCell, firstCell + capacity, 0);
+                for (int row = 0; row < capacity; row++) {
+                    compactCells[row * capacity + reusedIndex] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable open-addressing map from location IDs to dense indexes. Lookups don't box the key.
+     * Every modification produces a copy, which is cheap compared to computing a row of the matrix.
+     */
+    private static final class LocationIndex {
+
+        static final LocationIndex EMPTY = new LocationIndex(new long[4], emptySlots(4), 0);
+
+        private final long[] keys;
+        private final int[] values;
+        private final int size;
+
+        private LocationIndex(long[] keys, int[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        private static int[] emptySlots(int length) {
+            int[] slots = new int[length];
+            Arrays.fill(slots, NO_INDEX);
+            return slots;
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != NO_INDEX) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NO_INDEX;
+        }
+
+        LocationIndex with(long key, int value) {
+            // Keep load factor at or below 0.5.
+            int length = keys.length;
+            while ((size + 1) * 2 > length) {
+                length *= 2;
+            }
+            LocationIndex copy = new LocationIndex(new long[length], emptySlots(length), size + 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != NO_INDEX) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            copy.put(key, value);
+            return copy;
+        }
+
+        LocationIndex without(long key) {
+            LocationIndex copy = new LocationIndex(new long[keys.length], emptySlots(keys.length), size - 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != NO_INDEX && keys[i] != key) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            return copy;
+        }
+
+        List<Long> keys() {
+            List<Long> list = new ArrayList<>(size);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != NO_INDEX) {
+                    list.add(keys[i]);
+                }
+            }
+            return list;
+        }
+
+        private void put(long key, int value) {
+            // Only used while building a copy that hasn't been published yet.
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != NO_INDEX) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+    }
+}
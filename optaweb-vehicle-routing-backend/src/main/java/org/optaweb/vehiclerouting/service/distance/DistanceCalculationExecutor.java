@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Calculates rows and columns of the distance matrix on a dedicated thread pool.
+ * <p>
+ * Every row or column is a separate task, so the rows and columns of many new locations are calculated in parallel.
+ * The number of threads and the number of tasks waiting in the queue are bounded. When the queue is full,
+ * the submitting thread calculates the task itself, which slows down the producer (back-pressure).
+ * <p>
+ * Tasks are grouped by the location they are calculated for. When the location is removed, its pending tasks are
+ * {@link #cancel(long) cancelled}. A task that is already running can't be stopped, because the routing engine
+ * doesn't respond to interrupts, but its result is discarded.
+ */
+@ApplicationScoped
+class DistanceCalculationExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanceCalculationExecutor.class);
+
+    private final DistanceCalculator distanceCalculator;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, Set<Future<long[]>>> tasksByLocation = new ConcurrentHashMap<>();
+
+    @Inject
+    DistanceCalculationExecutor(DistanceCalculator distanceCalculator, DistanceProperties distanceProperties) {
+        this.distanceCalculator = distanceCalculator;
+        int threads = distanceProperties.getCalculationThreads();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(distanceProperties.getCalculationQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("distance-calculation-%d").setDaemon(true).build(),
+                (task, rejectingExecutor) -> {
+                    if (rejectingExecutor.isShutdown()) {
+                        // Make sure nobody waits for a task that will never run.
+                        ((Future<?>) task).cancel(false);
+                    } else {
+                        task.run();
+                    }
+                });
+    }
+
+    /**
+     * Calculate travel times from each origin to all destinations (rows of the distance matrix).
+     *
+     * @param origins new locations
+     * @param destinations destinations
+     * @return travel times in milliseconds indexed by origin and destination
+     * @throws DistanceCalculationException if any of the travel times can't be calculated or an origin is removed
+     */
+    long[][] travelTimesFrom(List<Location> origins, List<Coordinates> destinations) {
+        List<Callable<long[]>> tasks = new ArrayList<>(origins.size());
+        for (Location origin : origins) {
+            tasks.add(() -> distanceCalculator.travelTimesFrom(origin.coordinates(), destinations));
+        }
+        return invokeAll("rows", origins, tasks, destinations.size());
+    }
+
+    /**
+     * Calculate travel times from all origins to each destination (columns of the distance matrix).
+     *
+     * @param origins origins
+     * @param destinations new locations
+     * @return travel times in milliseconds indexed by destination and origin
+     * @throws DistanceCalculationException if any of the travel times can't be calculated or a destination is removed
+     */
+    long[][] travelTimesTo(List<Coordinates> origins, List<Location> destinations) {
+        List<Callable<long[]>> tasks = new ArrayList<>(destinations.size());
+        for (Location destination : destinations) {
+            tasks.add(() -> distanceCalculator.travelTimesTo(origins, destination.coordinates()));
+        }
+        return invokeAll("columns", destinations, tasks, origins.size());
+    }
+
+    /**
+     * Cancel calculations of the location's row and column.
+     *
+     * @param locationId location ID
+     */
+    void cancel(long locationId) {
+        Set<Future<long[]>> tasks = tasksByLocation.remove(locationId);
+        if (tasks != null) {
+            tasks.forEach(task -> task.cancel(true));
+            logger.debug("Cancelled {} distance calculations for location {}", tasks.size(), locationId);
+        }
+    }
+
+    private long[][] invokeAll(String what, List<Location> locations, List<Callable<long[]>> tasks, int length) {
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                Location location = locations.get(i);
+                Callable<long[]> task = tasks.get(i);
+                Future<long[]> future = executor.submit(() -> timed(what, location, task));
+                tasksByLocation.computeIfAbsent(location.id(), id -> ConcurrentHashMap.newKeySet()).add(future);
+                futures.add(future);
+            }
+            long[][] results = new long[futures.size()][];
+            for (int i = 0; i < futures.size(); i++) {
+                results[i] = await(futures.get(i), locations.get(i));
+            }
+            logger.debug("Calculated {} {} of {} travel times in {} ms",
+                    futures.size(), what, length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return results;
+        } finally {
+            // Stop the remaining tasks if one of them failed.
+            futures.forEach(future -> future.cancel(true));
+            for (int i = 0; i < futures.size(); i++) {
+                Future<long[]> future = futures.get(i);
+                tasksByLocation.computeIfPresent(locations.get(i).id(), (id, locationTasks) -> {
+                    locationTasks.remove(future);
+                    return locationTasks.isEmpty() ? null : locationTasks;
+                });
+            }
+        }
+    }
+
+    private static long[] timed(String what, Location location, Callable<long[]> task) throws Exception {
+        long start = System.nanoTime();
+        long[] result = task.call();
+        if (logger.isTraceEnabled()) {
+            logger.trace("Calculated {} travel times ({}) of {} in {} ms",
+                    result.length, what, location, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return result;
+    }
+
+    private static long[] await(Future<long[]> future, Location location) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new DistanceCalculationException(
+                    "Distance calculation for " + location + " has been cancelled because the location was removed",
+                    e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistanceCalculationException("Interrupted while calculating distances for " + location, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DistanceCalculationException("Failed to calculate distances for " + location, e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
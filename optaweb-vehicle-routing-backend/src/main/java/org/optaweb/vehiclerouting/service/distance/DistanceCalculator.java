@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import java.util.List;
+
 import org.optaweb.vehiclerouting.domain.Coordinates;
 
 /**
@@ -32,4 +34,54 @@ public interface DistanceCalculator {
      * @throws DistanceCalculationException when the distance between given coordinates cannot be calculated
      */
     long travelTimeMillis(Coordinates from, Coordinates to);
+
+    /**
+     * Calculate travel times in milliseconds from one origin to many destinations (one row of a distance matrix).
+     * Implementations should override this to compute the whole row at once if the routing engine allows it.
+     *
+     * @param from origin
+     * @param to destinations
+     * @return travel times in milliseconds, in the order of destinations
+     * @throws DistanceCalculationException when the distance to any of the destinations cannot be calculated
+     */
+    default long[] travelTimesFrom(Coordinates from, List<Coordinates> to) {
+        long[] travelTimes = new long[to.size()];
+        for (int i = 0; i < travelTimes.length; i++) {
+            travelTimes[i] = travelTimeMillis(from, to.get(i));
+        }
+        return travelTimes;
+    }
+
+    /**
+     * Calculate travel times in milliseconds from many origins to one destination (one column of a distance matrix).
+     * Implementations should override this to compute the whole column at once if the routing engine allows it.
+     *
+     * @param from origins
+     * @param to destination
+     * @return travel times in milliseconds, in the order of origins
+     * @throws DistanceCalculationException when the distance from any of the origins cannot be calculated
+     */
+    default long[] travelTimesTo(List<Coordinates> from, Coordinates to) {
+        long[] travelTimes = new long[from.size()];
+        for (int i = 0; i < travelTimes.length; i++) {
+            travelTimes[i] = travelTimeMillis(from.get(i), to);
+        }
+        return travelTimes;
+    }
+
+    /**
+     * Calculate travel times in milliseconds from many origins to many destinations.
+     *
+     * @param from origins
+     * @param to destinations
+     * @return travel times in milliseconds indexed by origin and destination
+     * @throws DistanceCalculationException when any of the distances cannot be calculated
+     */
+    default long[][] travelTimeMatrix(List<Coordinates> from, List<Coordinates> to) {
+        long[][] travelTimes = new long[from.size()][];
+        for (int i = 0; i < travelTimes.length; i++) {
+            travelTimes[i] = travelTimesFrom(from.get(i), to);
+        }
+        return travelTimes;
+    }
 }
@@ -16,115 +16,298 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
-import java.util.HashMap;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static org.optaweb.vehiclerouting.service.distance.DenseDistanceMatrix.NO_INDEX;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrix;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Distance matrix backed by a {@link DenseDistanceMatrix}.
+ * <p>
+ * Adding locations is serialized, so that each new location's row and column cover all locations added before it.
+ * Distances are calculated without blocking {@link #removeLocation(Location, CompletionStage) removal}. Removing
+ * a location that is being added cancels its calculation. Removing an existing location during a calculation is also
+ * safe: the removed location's cells are simply not written.
+ * <p>
+ * The index of a removed location isn't reused until the planner has released the location, so the solver never reads
+ * cells that have been cleared or overwritten for another location.
+ */
 @ApplicationScoped
 class DistanceMatrixImpl implements DistanceMatrix {
 
-    private final DistanceCalculator distanceCalculator;
-    private final Map<Location, Map<Long, Distance>> matrix = new HashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(DistanceMatrixImpl.class);
+
+    private final DistanceCalculationExecutor distanceCalculationExecutor;
+    private final Optional<Path> snapshotFile;
+    private final DenseDistanceMatrix matrix;
+    // Locations whose rows and columns have been calculated, mapped to their matrix index.
+    private final Map<Location, Integer> rows = new ConcurrentHashMap<>();
 
     @Inject
-    DistanceMatrixImpl(DistanceCalculator distanceCalculator) {
-        this.distanceCalculator = distanceCalculator;
+    DistanceMatrixImpl(DistanceCalculationExecutor distanceCalculationExecutor, DistanceProperties distanceProperties) {
+        this.distanceCalculationExecutor = distanceCalculationExecutor;
+        this.matrix = new DenseDistanceMatrix(distanceProperties.isCompact());
+        this.snapshotFile = distanceProperties.getSnapshotDir()
+                .map(dir -> Paths.get(dir).resolve(DistanceMatrixSnapshot.FILE_NAME).toAbsolutePath());
     }
 
     @Override
-    public DistanceMatrixRow updateLocation(Location newLocation) {
+    public synchronized DistanceMatrixRow updateLocation(Location newLocation) {
         this.removeLocation(newLocation);
         return this.addLocation(newLocation);
     }
 
     @Override
-    public DistanceMatrixRow addLocation(Location newLocation) {
-        Map<Long, Distance> distancesToOthers = updateMatrixLazily(newLocation);
-        return locationId -> distancesToOthers.computeIfAbsent(locationId, wrongId -> {
-            throw new IllegalArgumentException(
-                    "Distance from " + newLocation
-                            + " to " + wrongId
-                            + " hasn't been recorded.\n"
-                            + "We only know distances to " + distancesToOthers.keySet());
-        });
-    }
-
-    private Map<Long, Distance> updateMatrixLazily(Location location) {
+    public synchronized DistanceMatrixRow addLocation(Location newLocation) {
+        updateMatrixLazily(Collections.singletonList(newLocation));
+        return row(newLocation);
+    }
+
+    @Override
+    public synchronized List<DistanceMatrixRow> addLocations(List<Location> newLocations) {
+        updateMatrixLazily(newLocations);
+        return newLocations.stream()
+                .map(this::row)
+                .collect(toList());
+    }
+
+    private Row row(Location location) {
+        Integer index = rows.get(location);
+        if (index == null) {
+            throw new DistanceCalculationException(location + " has been removed while its distances were calculated.");
+        }
+        return new Row(location, index, matrix.generationOf(index));
+    }
+
+    private void updateMatrixLazily(List<Location> locations) {
         // Matrix == distance rows.
-        // We're adding a whole new row with distances from the new location to existing ones.
-        // We're also creating a new column by "appending" a new cell to each existing row.
-        // This new column contains distances from each existing location to the new one.
+        // We're adding whole new rows with distances from the new locations to existing ones and to each other.
+        // We're also creating new columns by "appending" new cells to each existing row.
+        // These new columns contain distances from each existing location to the new ones.
+
+        List<Location> newLocations = locations.stream()
+                .filter(location -> !rows.containsKey(location))
+                .distinct()
+                .collect(toList());
+        if (newLocations.isEmpty()) {
+            return;
+        }
+        List<Location> existingLocations = new ArrayList<>(rows.keySet());
+        List<Location> allLocations = new ArrayList<>(existingLocations);
+        allLocations.addAll(newLocations);
 
-        return matrix.computeIfAbsent(location, newLocation -> {
-            // The map must be thread-safe because:
-            // - we're updating it from the parallel stream below
-            // - it is accessed from solver thread!
-            Map<Long, Distance> distancesToOthers = new ConcurrentHashMap<>(); // the new row
+        // Calculate everything before touching the matrix so that a failure doesn't leave it half-updated.
+        // Each row and each column is calculated in one call so that the routing engine can do it in a single search.
+        // Rows and columns of different locations are calculated in parallel.
+        long[][] newRows = distanceCalculationExecutor.travelTimesFrom(newLocations, coordinates(allLocations));
+        long[][] newColumns = distanceCalculationExecutor.travelTimesTo(coordinates(existingLocations), newLocations);
+        for (int i = 0; i < newLocations.size(); i++) {
+            requireStorable(newRows[i], newLocations.get(i));
+            requireStorable(newColumns[i], newLocations.get(i));
+        }
 
-            // distance to self is 0
-            distancesToOthers.put(newLocation.id(), Distance.ZERO);
+        int[] allIndexes = new int[allLocations.size()];
+        for (int i = 0; i < newLocations.size(); i++) {
+            Location newLocation = newLocations.get(i);
+            int newIndex = matrix.addLocation(newLocation.id());
+            allIndexes[existingLocations.size() + i] = newIndex;
+            rows.put(newLocation, newIndex);
+        }
+        // Look up existing indexes only after adding the new locations, which may reuse indexes of locations removed
+        // and released during the calculation. Cells of locations removed from now on are harmless to write because
+        // their indexes can't be reused until the next location is added.
+        for (int i = 0; i < existingLocations.size(); i++) {
+            allIndexes[i] = rows.getOrDefault(existingLocations.get(i), NO_INDEX);
+        }
 
-            // For all entries (rows) in the matrix:
-            matrix.entrySet().stream().parallel().forEach(distanceRow -> {
-                // Entry key is the existing (other) location.
-                Location other = distanceRow.getKey();
-                // Entry value is the data (cells) in the row (distances from the entry key location to any other).
-                Map<Long, Distance> distancesFromOther = distanceRow.getValue();
-                // Add a new cell to the row with the distance from the entry key location to the new location
-                // (results in a new column at the end of the loop).
-                distancesFromOther.put(newLocation.id(), calculateDistance(other, newLocation));
-                // Add a cell to the new distance's row.
-                distancesToOthers.put(other.id(), calculateDistance(newLocation, other));
-            });
+        for (int i = 0; i < newLocations.size(); i++) {
+            int newIndex = allIndexes[existingLocations.size() + i];
+            // Cells in the new location's row.
+            for (int j = 0; j < allIndexes.length; j++) {
+                if (allIndexes[j] != NO_INDEX) {
+                    matrix.set(newIndex, allIndexes[j], newRows[i][j]);
+                }
+            }
+            // Cells in the new column (distances from existing locations to the new location).
+            for (int j = 0; j < existingLocations.size(); j++) {
+                if (allIndexes[j] != NO_INDEX) {
+                    matrix.set(allIndexes[j], newIndex, newColumns[i][j]);
+                }
+            }
+        }
+    }
 
-            return distancesToOthers;
-        });
+    private static List<Coordinates> coordinates(List<Location> locations) {
+        return locations.stream().map(Location::coordinates).collect(toList());
     }
 
-    private Distance calculateDistance(Location from, Location to) {
-        return Distance.ofMillis(distanceCalculator.travelTimeMillis(from.coordinates(), to.coordinates()));
+    private void requireStorable(long[] millis, Location location) {
+        for (long cell : millis) {
+            if (cell < 0) {
+                throw new IllegalArgumentException("Milliseconds (" + cell + ") must not be negative.");
+            }
+            if (!matrix.canStore(cell)) {
+                throw new DistanceCalculationException("Travel time (" + cell + " ms) to or from " + location
+                        + " is too long to be stored in the compact distance matrix (max " + Integer.MAX_VALUE
+                        + " ms). Disable app.distance.compact to allow longer travel times.");
+            }
+        }
     }
 
     @Override
     public Distance distance(Location from, Location to) {
-        if (!matrix.containsKey(from)) {
+        int fromIndex = matrix.indexOf(from.id());
+        if (fromIndex == NO_INDEX) {
             throw new IllegalArgumentException("Unknown 'from' location (" + from + ")");
         }
-        Map<Long, Distance> distanceRow = matrix.get(from);
-        if (!distanceRow.containsKey(to.id())) {
+        int toIndex = matrix.indexOf(to.id());
+        if (toIndex == NO_INDEX) {
             throw new IllegalArgumentException("Unknown 'to' location (" + to + ")");
         }
-        return distanceRow.get(to.id());
+        return Distance.ofMillis(matrix.get(fromIndex, toIndex));
     }
 
     @Override
     public void put(Location from, Location to, Distance distance) {
-        matrix.computeIfAbsent(from, location -> new ConcurrentHashMap<>()).put(to.id(), distance);
+        matrix.set(indexOf(from), indexOf(to), distance.millis());
+    }
+
+    private int indexOf(Location location) {
+        return rows.computeIfAbsent(location, newLocation -> matrix.addLocation(newLocation.id()));
     }
 
     @Override
-    public void removeLocation(Location location) {
-        // Remove the distance matrix row (distances from the removed location to others).
-        matrix.remove(location);
-        // TODO also remove the "column" of the matrix (distances from others to the removed location) to avoid memory
-        //  leak.
-        //  But this probably requires making DistanceMatrixRow immutable (otherwise there's a risk of NPEs in solver)
-        //  and update PlanningLocations' distance maps through problem fact changes.
+    public void removeLocation(Location location, CompletionStage<?> released) {
+        distanceCalculationExecutor.cancel(location.id());
+        // Remove both the row (distances from the removed location to others) and the column (distances from others
+        // to the removed location). The removed location's index is reused by a new location after it's released.
+        rows.remove(location);
+        int removedIndex = matrix.removeLocation(location.id());
+        if (removedIndex != NO_INDEX) {
+            // The release usually completes on the solver thread, which shouldn't wait for the matrix.
+            released.thenRunAsync(() -> matrix.releaseIndex(removedIndex));
+        }
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        rows.clear();
         matrix.clear();
     }
 
+    @Override
+    public synchronized boolean loadSnapshot(List<Location> locations) {
+        if (!snapshotFile.isPresent() || !Files.exists(snapshotFile.get())) {
+            return false;
+        }
+        List<Location> sortedLocations = sortById(locations);
+        clear();
+        try {
+            if (DistanceMatrixSnapshot.read(snapshotFile.get(), sortedLocations, matrix)) {
+                for (int i = 0; i < sortedLocations.size(); i++) {
+                    rows.put(sortedLocations.get(i), i);
+                }
+                logger.info("Loaded distance matrix snapshot {}.", snapshotFile.get());
+                return true;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load distance matrix snapshot {}.", snapshotFile.get(), e);
+        }
+        clear();
+        return false;
+    }
+
+    @Override
+    public synchronized void saveSnapshot() {
+        if (!snapshotFile.isPresent()) {
+            return;
+        }
+        List<Location> sortedLocations = sortById(rows.keySet());
+        int[] indexes = sortedLocations.stream().mapToInt(rows::get).toArray();
+        try {
+            Files.createDirectories(snapshotFile.get().getParent());
+            DistanceMatrixSnapshot.write(snapshotFile.get(), sortedLocations, indexes, matrix);
+            logger.info("Saved distance matrix snapshot of {} locations to {}.", indexes.length, snapshotFile.get());
+        } catch (IOException e) {
+            logger.warn("Failed to save distance matrix snapshot {}.", snapshotFile.get(), e);
+        }
+    }
+
+    private static List<Location> sortById(Collection<Location> locations) {
+        return locations.stream().sorted(comparingLong(Location::id)).collect(toList());
+    }
+
+    /**
+     * Reads cells of one row of the matrix. The row remembers the generation of its index so that it can detect when
+     * the index has been reused by another location.
+     * <p>
+     * {@link #millisToIndex(int)} doesn't check the generation so that the hot path has no extra reads. The solver can
+     * read a removed location's row and column until it processes the removal. That's safe because the index is only
+     * reused after the planner releases the location, and the cells are left untouched until then.
+     */
+    private final class Row implements DistanceMatrixRow {
+
+        private final Location location;
+        private final int index;
+        private final int generation;
+
+        private Row(Location location, int index, int generation) {
+            this.location = location;
+            this.index = index;
+            this.generation = generation;
+        }
+
+        @Override
+        public long millisTo(long locationId) {
+            if (matrix.generationOf(index) != generation) {
+                throw new IllegalStateException(
+                        "The distance matrix row of " + location + " is stale because the location has been removed.");
+            }
+            int columnIndex = matrix.indexOf(locationId);
+            if (columnIndex == NO_INDEX) {
+                throw new IllegalArgumentException(
+                        "Distance from " + location
+                                + " to " + locationId
+                                + " hasn't been recorded.\n"
+                                + "We only know distances to " + matrix.locationIds());
+            }
+            return matrix.get(index, columnIndex);
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public long millisToIndex(int locationIndex) {
+            return matrix.get(index, locationIndex);
+        }
+    }
+
     /**
      * Number of rows in the matrix.
      *
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.optaweb.vehiclerouting.domain.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary snapshot of the distance matrix. It is read in one pass instead of loading every distance from the database.
+ * <p>
+ * The file has the following layout (big-endian):
+ *
+ * <pre>
+ * int          magic number
+ * int          format version
+ * int          number of locations (N)
+ * int          bytes per cell
+ * long         fingerprint of the locations
+ * long[N]      location IDs in ascending order
+ * long[N * N]  travel times in milliseconds, row by row, in the order of location IDs
+ *              (int[N * N] if the matrix is compact)
+ * </pre>
+ *
+ * The fingerprint covers IDs and coordinates of all locations, so a snapshot is only loaded if the locations haven't
+ * changed since it was written. The file is memory-mapped when it's read, so its cells are copied straight into
+ * the matrix without being parsed.
+ */
+final class DistanceMatrixSnapshot {
+
+    static final String FILE_NAME = "distance-matrix.bin";
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanceMatrixSnapshot.class);
+
+    private static final int MAGIC = 0x4F565244; // "OVRD"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+    // A single mapping can't be larger than 2 GB.
+    private static final long MAX_MAPPING_BYTES = 1L << 30;
+
+    private DistanceMatrixSnapshot() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Calculate a fingerprint of the locations.
+     *
+     * @param locations locations sorted by ID
+     * @return fingerprint
+     */
+    static long fingerprint(List<Location> locations) {
+        long fingerprint = 17;
+        for (Location location : locations) {
+            fingerprint = 31 * fingerprint + location.id();
+            fingerprint = 31 * fingerprint + Double.doubleToLongBits(location.coordinates().latitude().doubleValue());
+            fingerprint = 31 * fingerprint + Double.doubleToLongBits(location.coordinates().longitude().doubleValue());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Write the snapshot. The file is replaced atomically, so a reader never sees a partially written snapshot.
+     *
+     * @param file snapshot file
+     * @param locations locations sorted by ID
+     * @param indexes matrix index of each location
+     * @param matrix the matrix
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path file, List<Location> locations, int[] indexes, DenseDistanceMatrix matrix)
+            throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(locations.size());
+            out.writeInt(cellBytes(matrix));
+            out.writeLong(fingerprint(locations));
+            for (Location location : locations) {
+                out.writeLong(location.id());
+            }
+            for (int fromIndex : indexes) {
+                for (int toIndex : indexes) {
+                    if (matrix.isCompact()) {
+                        out.writeInt((int) matrix.get(fromIndex, toIndex));
+                    } else {
+                        out.writeLong(matrix.get(fromIndex, toIndex));
+                    }
+                }
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the snapshot into an empty matrix. Locations are added to the matrix in the given order, so the matrix
+     * index of each location is its position in the list.
+     *
+     * @param file snapshot file
+     * @param locations locations sorted by ID
+     * @param matrix empty matrix
+     * @return {@code true} if the snapshot matches the locations and has been loaded, {@code false} otherwise
+     * @throws IOException if the file can't be read
+     */
+    static boolean read(Path file, List<Location> locations, DenseDistanceMatrix matrix) throws IOException {
+        int size = locations.size();
+        int cellBytes = cellBytes(matrix);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long cellsOffset = HEADER_BYTES + (long) size * Long.BYTES;
+            long expectedFileSize = cellsOffset + (long) size * size * cellBytes;
+            if (channel.size() != expectedFileSize) {
+                logger.info("Distance matrix snapshot {} has a different size than expected for {} locations.",
+                        file, size);
+                return false;
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, cellsOffset);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                logger.info("{} is not a distance matrix snapshot or has an unsupported format.", file);
+                return false;
+            }
+            if (header.getInt() != size || header.getInt() != cellBytes
+                    || header.getLong() != fingerprint(locations)) {
+                logger.info("Distance matrix snapshot {} doesn't match the current locations.", file);
+                return false;
+            }
+            for (Location location : locations) {
+                if (header.getLong() != location.id()) {
+                    logger.info("Distance matrix snapshot {} doesn't match the current locations.", file);
+                    return false;
+                }
+            }
+
+            for (int i = 0; i < size; i++) {
+                int index = matrix.addLocation(locations.get(i).id());
+                if (index != i) {
+                    throw new IllegalStateException("The matrix must be empty but index " + index
+                            + " was assigned to location #" + i + ".");
+                }
+            }
+            long rowBytes = (long) size * cellBytes;
+            int rowsPerMapping = (int) Math.max(1, MAX_MAPPING_BYTES / Math.max(1, rowBytes));
+            long[] row = new long[size];
+            int[] compactRow = new int[size];
+            for (int firstRow = 0; firstRow < size; firstRow += rowsPerMapping) {
+                int rowCount = Math.min(rowsPerMapping, size - firstRow);
+                ByteBuffer cells = channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        cellsOffset + firstRow * rowBytes,
+                        rowCount * rowBytes);
+                LongBuffer longCells = matrix.isCompact() ? null : cells.asLongBuffer();
+                IntBuffer intCells = matrix.isCompact() ? cells.asIntBuffer() : null;
+                for (int fromIndex = firstRow; fromIndex < firstRow + rowCount; fromIndex++) {
+                    if (matrix.isCompact()) {
+                        intCells.get(compactRow);
+                        for (int i = 0; i < size; i++) {
+                            row[i] = compactRow[i];
+                        }
+                    } else {
+                        longCells.get(row);
+                    }
+                    matrix.setRow(fromIndex, row);
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int cellBytes(DenseDistanceMatrix matrix) {
+        return matrix.isCompact() ? Integer.BYTES : Long.BYTES;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.util.Optional;
+
+import io.quarkus.arc.config.ConfigProperties;
+
+@ConfigProperties(prefix = "app.distance")
+public class DistanceProperties {
+
+    /**
+     * Directory where a binary snapshot of the distance matrix is stored. Snapshots are disabled if not set.
+     */
+    private Optional<String> snapshotDir;
+
+    /**
+     * Store travel times as {@code int} milliseconds instead of {@code long}, both in memory and in the database.
+     */
+    private boolean compact = false;
+
+    /**
+     * Number of threads calculating distances when locations are added.
+     */
+    private int calculationThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of distance calculation tasks waiting for a thread.
+     */
+    private int calculationQueueCapacity = 1000;
+
+    public Optional<String> getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    public void setSnapshotDir(Optional<String> snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public int getCalculationThreads() {
+        return calculationThreads;
+    }
+
+    public void setCalculationThreads(int calculationThreads) {
+        this.calculationThreads = calculationThreads;
+    }
+
+    public int getCalculationQueueCapacity() {
+        return calculationQueueCapacity;
+    }
+
+    public void setCalculationQueueCapacity(int calculationQueueCapacity) {
+        this.calculationQueueCapacity = calculationQueueCapacity;
+    }
+}
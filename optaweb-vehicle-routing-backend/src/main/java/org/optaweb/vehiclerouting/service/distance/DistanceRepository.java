@@ -16,6 +16,7 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import java.util.Map;
 import java.util.Optional;
 
 import org.optaweb.vehiclerouting.domain.Distance;
@@ -28,9 +29,44 @@ public interface DistanceRepository {
 
     void saveDistance(Location from, Location to, Distance distance);
 
+    /**
+     * Save distances between the location and other locations in both directions. Implementations should save
+     * them in batches rather than one by one.
+     *
+     * @param location location whose distance matrix row and column are saved
+     * @param distancesTo distances from the location to other locations (the row)
+     * @param distancesFrom distances from other locations to the location (the column)
+     */
+    void saveDistances(Location location, Map<Location, Distance> distancesTo, Map<Location, Distance> distancesFrom);
+
     Optional<Distance> getDistance(Location from, Location to);
 
+    /**
+     * Read all distances with a single query. Distances are passed to the consumer as they are read, so they are never
+     * all held in memory at once.
+     *
+     * @param consumer receives each distance
+     * @return number of distances read
+     */
+    long forEachDistance(DistanceConsumer consumer);
+
     void deleteDistances(Location location);
 
     void deleteAll();
+
+    /**
+     * Receives distances read from the repository.
+     */
+    @FunctionalInterface
+    interface DistanceConsumer {
+
+        /**
+         * Accept one distance.
+         *
+         * @param fromId ID of the location where the distance starts
+         * @param toId ID of the location where the distance ends
+         * @param millis travel time in milliseconds
+         */
+        void accept(long fromId, long toId, long millis);
+    }
 }
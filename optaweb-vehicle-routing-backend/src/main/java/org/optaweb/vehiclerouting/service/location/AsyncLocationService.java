@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.location;
+
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Creates locations without making the caller wait until their distances are calculated.
+ * <p>
+ * A new location is stored immediately and reported as {@link LocationStatus#PENDING pending}. Its distances are
+ * calculated on a background thread, together with all other locations that are pending at that moment. When they
+ * are ready, the locations are handed over to the planner and reported as {@link LocationStatus#READY ready}.
+ * Locations whose distances can't be calculated are removed and reported as {@link LocationStatus#FAILED failed}.
+ */
+@ApplicationScoped
+public class AsyncLocationService {
+
+    private final LocationService locationService;
+    private final DistanceMatrix distanceMatrix;
+    private final Queue<Location> pendingLocations = new ConcurrentLinkedQueue<>();
+    // A single thread, so that batches are added to the matrix and to the planner in the order of creation.
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("location-worker").setDaemon(true).build());
+
+    @Inject
+    AsyncLocationService(LocationService locationService, DistanceMatrix distanceMatrix) {
+        this.locationService = locationService;
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    /**
+     * Create a location and calculate its distances in the background.
+     *
+     * @param coordinates location's coordinates
+     * @param requiredSkill skill required by the location
+     * @param description description of the location
+     * @return the new, pending location
+     */
+    public Location createLocation(Coordinates coordinates, String requiredSkill, String description) {
+        // Not transactional, so that the location is committed before the worker can touch it.
+        Location location = locationService.createPendingLocation(coordinates, requiredSkill, description);
+        pendingLocations.add(location);
+        worker.execute(this::addPendingLocations);
+        return location;
+    }
+
+    private void addPendingLocations() {
+        List<Location> batch = new ArrayList<>();
+        Location location;
+        while ((location = pendingLocations.poll()) != null) {
+            batch.add(location);
+        }
+        if (batch.isEmpty()) {
+            // Already added by a previous run.
+            return;
+        }
+        try {
+            locationService.completePendingLocations(batch, distanceMatrix.addLocations(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                locationService.failPendingLocations(batch, e);
+                return;
+            }
+            // One of the locations may be unreachable or has been removed. Add them one by one so that the others
+            // are not lost.
+            for (Location pendingLocation : batch) {
+                List<Location> single = singletonList(pendingLocation);
+                try {
+                    locationService.completePendingLocations(single, distanceMatrix.addLocations(single));
+                } catch (RuntimeException singleException) {
+                    locationService.failPendingLocations(single, singleException);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.optaweb.vehiclerouting.service.location;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
 
@@ -26,12 +30,52 @@ public interface DistanceMatrix {
 
     DistanceMatrixRow addLocation(Location location);
 
+    /**
+     * Add many locations at once. The routing engine can calculate each new row and column with one search
+     * instead of one search per pair of locations.
+     *
+     * @param locations new locations
+     * @return distance matrix rows of the given locations, in the same order
+     */
+    List<DistanceMatrixRow> addLocations(List<Location> locations);
+
     DistanceMatrixRow updateLocation(Location location);
 
-    void removeLocation(Location location);
+    /**
+     * Remove a location whose distances are no longer read by anyone.
+     *
+     * @param location removed location
+     */
+    default void removeLocation(Location location) {
+        removeLocation(location, CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Remove a location whose distances may still be read for a while, e.g. by the solver.
+     * The location's cells are neither cleared nor reused by a new location until {@code released} completes.
+     *
+     * @param location removed location
+     * @param released completes when the location's distances are no longer read
+     */
+    void removeLocation(Location location, CompletionStage<?> released);
 
     void clear();
 
+    /**
+     * Replace the contents of the matrix with the snapshot saved by {@link #saveSnapshot()}, provided that
+     * the snapshot was taken with exactly the given locations.
+     *
+     * @param locations all locations
+     * @return {@code true} if the snapshot has been loaded, {@code false} if there is no matching snapshot
+     */
+    boolean loadSnapshot(List<Location> locations);
+
+    /**
+     * Save a snapshot of the matrix so that it can be loaded after restart without reading every distance from
+     * the database. Does nothing if snapshots are disabled.
+     */
+    void saveSnapshot();
+
     Distance distance(Location from, Location to);
 
     void put(Location from, Location to, Distance distance);
@@ -29,5 +29,33 @@ public interface DistanceMatrixRow {
      * @param locationId target location
      * @return time it takes to travel to the given location
      */
-    Distance distanceTo(long locationId);
+    default Distance distanceTo(long locationId) {
+        return Distance.ofMillis(millisTo(locationId));
+    }
+
+    /**
+     * Travel time from this row's location to the given location. Unlike {@link #distanceTo(long)}, this doesn't
+     * allocate, so it is suitable for hot paths like score calculation.
+     *
+     * @param locationId target location
+     * @return time in milliseconds it takes to travel to the given location
+     */
+    long millisTo(long locationId);
+
+    /**
+     * Dense index of this row's location in the distance matrix. Other rows can be queried for the distance
+     * to this row's location by passing this index to {@link #millisToIndex(int)}.
+     *
+     * @return index of this row's location, never negative
+     */
+    int index();
+
+    /**
+     * Travel time from this row's location to the location with the given {@link #index() index}. This is a plain
+     * array read with no hashing or allocation.
+     *
+     * @param locationIndex index of the target location
+     * @return time in milliseconds it takes to travel to the given location
+     */
+    long millisToIndex(int locationIndex);
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.location;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
+
+/**
+ * Creates many locations at once.
+ * <p>
+ * The locations are stored as {@link LocationStatus#PENDING pending} in one transaction. Their distances are then
+ * calculated in bulk, outside of any transaction and without blocking other location use cases. Finally, the distances
+ * are saved and the locations are added to the routing plan in another transaction.
+ */
+@ApplicationScoped
+public class LocationImportService {
+
+    private final LocationService locationService;
+    private final DistanceMatrix distanceMatrix;
+
+    @Inject
+    LocationImportService(LocationService locationService, DistanceMatrix distanceMatrix) {
+        this.locationService = locationService;
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    /**
+     * Create many locations at once. Distances of all the new locations are calculated in bulk, a whole row and
+     * column at a time. If any of the locations cannot be routed to, none of them is created.
+     *
+     * @param locationData new locations' data
+     * @return the created locations or empty if distance calculation failed
+     */
+    public Optional<List<Location>> createLocations(List<LocationData> locationData) {
+        Objects.requireNonNull(locationData);
+        // Not transactional, so that the pending locations are committed before their distances are calculated.
+        List<Location> locations = locationService.createPendingLocations(locationData);
+        List<DistanceMatrixRow> distanceMatrixRows;
+        try {
+            distanceMatrixRows = distanceMatrix.addLocations(locations);
+        } catch (RuntimeException e) {
+            locationService.discardPendingLocations(locations, e);
+            return Optional.empty();
+        }
+        locationService.completePendingLocations(locations, distanceMatrixRows);
+        return Optional.of(locations);
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.optaweb.vehiclerouting.service.location;
 
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
 import org.optaweb.vehiclerouting.domain.Location;
 
 /**
@@ -25,7 +28,23 @@ public interface LocationPlanner {
 
     void addLocation(Location location, DistanceMatrixRow distanceMatrixRow);
 
-    void removeLocation(Location location);
+    /**
+     * Add many locations at once. If the solver is running, all the locations are added with a single problem change
+     * instead of one change per location.
+     *
+     * @param locations new locations
+     * @param distanceMatrixRows distance matrix rows of the new locations (in the same order)
+     */
+    void addLocations(List<Location> locations, List<DistanceMatrixRow> distanceMatrixRows);
+
+    /**
+     * Remove the location from the routing plan. The solver may keep reading the location's distances until it
+     * processes the removal, which can happen later on a different thread.
+     *
+     * @param location removed location
+     * @return completes when the location's distances are no longer read
+     */
+    CompletionStage<Void> removeLocation(Location location);
 
     void removeAllLocations();
 }
@@ -17,10 +17,19 @@
 package org.optaweb.vehiclerouting.service.location;
 
 import static java.util.Comparator.comparingLong;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
@@ -28,7 +37,9 @@ import javax.inject.Inject;
 import javax.transaction.Transactional;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
 import org.optaweb.vehiclerouting.service.distance.DistanceRepository;
 import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.slf4j.Logger;
@@ -47,6 +58,10 @@ public class LocationService {
     private final LocationPlanner planner; // TODO move to RoutingPlanService (SRP)
     private final DistanceMatrix distanceMatrix;
     private final Event<ErrorEvent> errorEvent;
+    private final Event<LocationRemovedEvent> locationRemovedEvent;
+    private final Event<LocationStatusEvent> locationStatusEvent;
+    // Locations that are stored in the repository but are not in the routing plan yet.
+    private final Set<Long> pendingLocationIds = ConcurrentHashMap.newKeySet();
 
     @Inject
     LocationService(
@@ -54,12 +69,16 @@ public class LocationService {
             DistanceRepository distanceRepository,
             LocationPlanner planner,
             DistanceMatrix distanceMatrix,
-            Event<ErrorEvent> errorEvent) {
+            Event<ErrorEvent> errorEvent,
+            Event<LocationRemovedEvent> locationRemovedEvent,
+            Event<LocationStatusEvent> locationStatusEvent) {
         this.repository = repository;
         this.distanceRepository = distanceRepository;
         this.planner = planner;
         this.distanceMatrix = distanceMatrix;
         this.errorEvent = errorEvent;
+        this.locationRemovedEvent = locationRemovedEvent;
+        this.locationStatusEvent = locationStatusEvent;
     }
 
     public synchronized void addLocation(Location location) {
@@ -88,14 +107,10 @@ public class LocationService {
     private Optional<DistanceMatrixRow> addToMatrix(Location location) {
         try {
             DistanceMatrixRow distanceMatrixRow = distanceMatrix.addLocation(location);
-            repository.locations().stream()
+            List<Location> otherLocations = readyLocations().stream()
                     .filter(existingLocation -> !existingLocation.equals(location))
-                    .forEach(existingLocation -> {
-                        distanceRepository.saveDistance(location, existingLocation,
-                                distanceMatrixRow.distanceTo(existingLocation.id()));
-                        distanceRepository.saveDistance(existingLocation, location,
-                                distanceMatrix.distance(existingLocation, location));
-                    });
+                    .collect(toList());
+            saveDistances(location, distanceMatrixRow, otherLocations, otherLocations);
             return Optional.of(distanceMatrixRow);
         } catch (Exception e) {
             logger.error(
@@ -109,6 +124,169 @@ public class LocationService {
         }
     }
 
+    /**
+     * Store a new location without calculating its distances. The location is pending until its distances are
+     * calculated and it is either {@link #completePendingLocations(List, List) completed}
+     * or {@link #failPendingLocations(List, Exception) failed}.
+     *
+     * @param coordinates location's coordinates
+     * @param requiredSkill skill required by the location
+     * @param description description of the location
+     * @return the new location
+     */
+    @Transactional
+    public synchronized Location createPendingLocation(
+            Coordinates coordinates,
+            String requiredSkill,
+            String description) {
+        Objects.requireNonNull(coordinates);
+        Objects.requireNonNull(requiredSkill);
+        Objects.requireNonNull(description);
+        Location location = repository.createLocation(coordinates, requiredSkill, description);
+        pendingLocationIds.add(location.id());
+        locationStatusEvent.fire(new LocationStatusEvent(this, location.id(), LocationStatus.PENDING));
+        return location;
+    }
+
+    /**
+     * Store many new locations without calculating their distances. The locations are pending until they are
+     * {@link #completePendingLocations(List, List) completed} or {@link #discardPendingLocations(List, Exception)
+     * discarded}.
+     *
+     * @param locationData new locations' data
+     * @return the new locations
+     */
+    @Transactional
+    public synchronized List<Location> createPendingLocations(List<LocationData> locationData) {
+        Objects.requireNonNull(locationData);
+        List<Location> locations = new ArrayList<>(locationData.size());
+        for (LocationData data : locationData) {
+            Location location = repository.createLocation(data.coordinates(), data.requiredSkill(), data.description());
+            pendingLocationIds.add(location.id());
+            locationStatusEvent.fire(new LocationStatusEvent(this, location.id(), LocationStatus.PENDING));
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Save distances of pending locations that have just been added to the distance matrix and add the locations
+     * to the routing plan. Locations that have been removed in the meantime are removed from the matrix again.
+     *
+     * @param locations pending locations
+     * @param distanceMatrixRows distance matrix rows of the pending locations
+     */
+    @Transactional
+    public synchronized void completePendingLocations(
+            List<Location> locations,
+            List<DistanceMatrixRow> distanceMatrixRows) {
+        List<Location> readyLocations = readyLocations();
+        List<Location> completedLocations = new ArrayList<>(locations.size());
+        List<DistanceMatrixRow> completedRows = new ArrayList<>(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            if (!pendingLocationIds.remove(location.id())) {
+                distanceMatrix.removeLocation(location);
+                continue;
+            }
+            DistanceMatrixRow distanceMatrixRow = distanceMatrixRows.get(i);
+            saveDistances(location, distanceMatrixRow, readyLocations, readyLocations);
+            readyLocations.add(location);
+            completedLocations.add(location);
+            completedRows.add(distanceMatrixRow);
+        }
+        planner.addLocations(completedLocations, completedRows);
+        completedLocations.forEach(location -> locationStatusEvent.fire(
+                new LocationStatusEvent(this, location.id(), LocationStatus.READY)));
+    }
+
+    /**
+     * Discard pending locations whose distances couldn't be calculated.
+     *
+     * @param locations pending locations
+     * @param cause reason of the failure
+     */
+    @Transactional
+    public synchronized void failPendingLocations(List<Location> locations, Exception cause) {
+        for (Location location : locations) {
+            if (!pendingLocationIds.remove(location.id())) {
+                continue;
+            }
+            repository.removeLocation(location.id());
+            distanceMatrix.removeLocation(location);
+            logger.error(
+                    "Failed to calculate distances for location {}, it will be discarded",
+                    location.fullDescription(), cause);
+            locationStatusEvent.fire(new LocationStatusEvent(this, location.id(), LocationStatus.FAILED));
+            errorEvent.fire(new ErrorEvent(
+                    this,
+                    "Failed to calculate distances for location " + location.fullDescription()
+                            + ", it will be discarded.\n" + cause.toString()));
+        }
+    }
+
+    /**
+     * Discard pending locations that have been created together, because distances couldn't be calculated for some
+     * of them. Unlike {@link #failPendingLocations(List, Exception)}, the failure is reported once for all of them.
+     *
+     * @param locations pending locations
+     * @param cause reason of the failure
+     */
+    @Transactional
+    public synchronized void discardPendingLocations(List<Location> locations, Exception cause) {
+        List<Location> discardedLocations = locations.stream()
+                .filter(location -> pendingLocationIds.remove(location.id()))
+                .collect(toList());
+        for (Location location : discardedLocations) {
+            repository.removeLocation(location.id());
+            distanceMatrix.removeLocation(location);
+            locationStatusEvent.fire(new LocationStatusEvent(this, location.id(), LocationStatus.FAILED));
+        }
+        logger.error("Failed to calculate distances for {} new locations, they will be discarded",
+                discardedLocations.size(), cause);
+        errorEvent.fire(new ErrorEvent(
+                this,
+                "Failed to calculate distances for " + discardedLocations.size()
+                        + " new locations, they will be discarded.\n" + cause.toString()));
+    }
+
+    /**
+     * Status of a stored location. A location is {@link LocationStatus#PENDING pending} while its distances
+     * are being calculated, otherwise it is {@link LocationStatus#READY ready}.
+     *
+     * @param locationId ID of a stored location
+     * @return location status
+     */
+    public LocationStatus status(long locationId) {
+        return pendingLocationIds.contains(locationId) ? LocationStatus.PENDING : LocationStatus.READY;
+    }
+
+    private List<Location> readyLocations() {
+        return repository.locations().stream()
+                .filter(location -> !pendingLocationIds.contains(location.id()))
+                .collect(toList());
+    }
+
+    /**
+     * Save the location's distance matrix row and column in one batch.
+     *
+     * @param location location whose distances are saved
+     * @param distanceMatrixRow the location's distance matrix row
+     * @param rowLocations locations to save the distances to
+     * @param columnLocations locations to save the distances from
+     */
+    private void saveDistances(
+            Location location,
+            DistanceMatrixRow distanceMatrixRow,
+            List<Location> rowLocations,
+            List<Location> columnLocations) {
+        Map<Location, Distance> distancesTo = new HashMap<>(rowLocations.size() * 2);
+        rowLocations.forEach(to -> distancesTo.put(to, distanceMatrixRow.distanceTo(to.id())));
+        Map<Location, Distance> distancesFrom = new HashMap<>(columnLocations.size() * 2);
+        columnLocations.forEach(from -> distancesFrom.put(from, distanceMatrix.distance(from, location)));
+        distanceRepository.saveDistances(location, distancesTo, distancesFrom);
+    }
+
     @Transactional
     public synchronized void removeLocation(long id) {
         Optional<Location> optionalLocation = repository.find(id);
@@ -117,7 +295,15 @@ public class LocationService {
             return;
         }
         Location removedLocation = optionalLocation.get();
-        List<Location> locations = repository.locations();
+        if (pendingLocationIds.remove(id)) {
+            // Not in the routing plan yet. Removing it from the matrix cancels any distance calculation in progress.
+            repository.removeLocation(id);
+            distanceMatrix.removeLocation(removedLocation);
+            distanceRepository.deleteDistances(removedLocation);
+            locationRemovedEvent.fire(new LocationRemovedEvent(this, id));
+            return;
+        }
+        List<Location> locations = readyLocations();
         if (locations.size() > 1) {
             Location depot = locations.stream()
                     .min(comparingLong(Location::id))
@@ -129,26 +315,60 @@ public class LocationService {
             }
         }
 
-        planner.removeLocation(removedLocation);
+        CompletionStage<Void> removedFromPlan = planner.removeLocation(removedLocation);
         repository.removeLocation(id);
-        distanceMatrix.removeLocation(removedLocation);
+        distanceMatrix.removeLocation(removedLocation, removedFromPlan);
         distanceRepository.deleteDistances(removedLocation);
+        locationRemovedEvent.fire(new LocationRemovedEvent(this, id));
     }
 
     @Transactional
     public synchronized void removeAll() {
         planner.removeAllLocations();
+        pendingLocationIds.clear();
         repository.removeAll();
         distanceMatrix.clear();
         distanceRepository.deleteAll();
+        locationRemovedEvent.fire(new LocationRemovedEvent(this, null));
     }
 
-    public void populateDistanceMatrix() {
-        repository.locations()
-                .forEach(from -> repository.locations().stream()
-                        .filter(to -> !to.equals(from))
-                        .forEach(to -> distanceMatrix.put(from, to, distanceRepository.getDistance(from, to)
-                                .orElseThrow(() -> new IllegalStateException("Distance from: [" + from + "] to: [" + to
-                                        + "] is missing in the distance repository. This should not happen.")))));
+    /**
+     * Save a snapshot of the distance matrix so that it can be populated from the snapshot after restart.
+     */
+    public synchronized void saveDistanceMatrixSnapshot() {
+        distanceMatrix.saveSnapshot();
+    }
+
+    /**
+     * Fill the distance matrix with distances from the matrix snapshot if it matches the locations in the repository.
+     * Otherwise, read them from the repository. All distances are read with a single query.
+     *
+     * @return number of distances put in the matrix
+     */
+    @Transactional
+    public synchronized long populateDistanceMatrix() {
+        List<Location> allLocations = repository.locations();
+        if (distanceMatrix.loadSnapshot(allLocations)) {
+            return (long) allLocations.size() * (allLocations.size() - 1);
+        }
+        Map<Long, Location> locations = allLocations.stream()
+                .collect(toMap(Location::id, identity()));
+        long[] loaded = { 0 };
+        distanceRepository.forEachDistance((fromId, toId, millis) -> {
+            Location from = locations.get(fromId);
+            Location to = locations.get(toId);
+            // Skip distances whose locations no longer exist.
+            if (from != null && to != null) {
+                distanceMatrix.put(from, to, Distance.ofMillis(millis));
+                loaded[0]++;
+            }
+        });
+        long expected = (long) locations.size() * (locations.size() - 1);
+        if (locations.size() > 1 && loaded[0] < expected) {
+            throw new IllegalStateException("Only " + loaded[0] + " of " + expected
+                    + " distances between " + locations.size() + " locations are in the distance repository."
+                    + " This should not happen.");
+        }
+        return loaded[0];
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.location;
+
+/**
+ * Status of a location created by {@link AsyncLocationService}.
+ */
+public enum LocationStatus {
+    /**
+     * The location has been stored but its distances are still being calculated.
+     */
+    PENDING,
+    /**
+     * Distances have been calculated and the location has been added to the routing plan.
+     */
+    READY,
+    /**
+     * Distances couldn't be calculated. The location has been discarded.
+     */
+    FAILED
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.location;
+
+import java.util.Objects;
+
+/**
+ * Event published when the status of a location created by {@link AsyncLocationService} changes.
+ */
+public class LocationStatusEvent {
+
+    private final long locationId;
+    private final LocationStatus status;
+
+    /**
+     * Create a new ApplicationEvent.
+     *
+     * @param source the object on which the event initially occurred (never {@code null})
+     * @param locationId location ID
+     * @param status new status of the location
+     */
+    public LocationStatusEvent(Object source, long locationId, LocationStatus status) {
+        this.locationId = locationId;
+        this.status = Objects.requireNonNull(status);
+    }
+
+    /**
+     * ID of the location.
+     *
+     * @return location ID
+     */
+    public long locationId() {
+        return locationId;
+    }
+
+    /**
+     * New status of the location.
+     *
+     * @return location status
+     */
+    public LocationStatus status() {
+        return status;
+    }
+}
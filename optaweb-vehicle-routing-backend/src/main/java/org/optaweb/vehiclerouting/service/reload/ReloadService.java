@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.service.reload;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
@@ -24,15 +26,21 @@ import org.optaweb.vehiclerouting.service.location.LocationRepository;
 import org.optaweb.vehiclerouting.service.location.LocationService;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleRepository;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 
 /**
- * Reloads data from repositories when the application starts.
+ * Reloads data from repositories when the application starts. Saves a distance matrix snapshot when it stops
+ * so that the next start doesn't have to read every distance from the database.
  */
 @ApplicationScoped
 public class ReloadService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReloadService.class);
+
     private final VehicleRepository vehicleRepository;
     private final VehicleService vehicleService;
     private final LocationRepository locationRepository;
@@ -52,7 +60,14 @@ public class ReloadService {
 
     public void reload(@Observes StartupEvent startupEvent) {
         vehicleRepository.vehicles().forEach(vehicleService::addVehicle);
-        locationService.populateDistanceMatrix();
+        long start = System.nanoTime();
+        long distanceCount = locationService.populateDistanceMatrix();
+        logger.info("Loaded {} distances in {} ms.",
+                distanceCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         locationRepository.locations().forEach(locationService::addLocation);
     }
+
+    public void saveSnapshot(@Observes ShutdownEvent shutdownEvent) {
+        locationService.saveDistanceMatrixSnapshot();
+    }
 }
@@ -19,6 +19,8 @@ package org.optaweb.vehiclerouting.service.route;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,11 +38,14 @@ import org.optaweb.vehiclerouting.domain.Route;
 import org.optaweb.vehiclerouting.domain.RouteWithTrack;
 import org.optaweb.vehiclerouting.domain.RoutingPlan;
 import org.optaweb.vehiclerouting.domain.Vehicle;
+import org.optaweb.vehiclerouting.service.location.LocationRemovedEvent;
 import org.optaweb.vehiclerouting.service.location.LocationRepository;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheStats;
+
 import io.quarkus.arc.profile.UnlessBuildProfile;
 
 /**
@@ -51,11 +56,14 @@ import io.quarkus.arc.profile.UnlessBuildProfile;
 public class RouteListener {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteListener.class);
+    private static final Duration TRACK_CACHE_STATS_INTERVAL = Duration.ofMinutes(1);
 
     private final Router router;
     private final VehicleRepository vehicleRepository;
     private final LocationRepository locationRepository;
     private final Event<RoutingPlan> routingPlanEvent;
+    private final TrackCache trackCache;
+    private Instant trackCacheStatsLogged = Instant.now();
 
     // TODO maybe remove state from the service and get best route from a repository
     private RoutingPlan bestRoutingPlan;
@@ -65,11 +73,13 @@ public class RouteListener {
             Router router,
             VehicleRepository vehicleRepository,
             LocationRepository locationRepository,
-            Event<RoutingPlan> routingPlanEvent) {
+            Event<RoutingPlan> routingPlanEvent,
+            RouteProperties routeProperties) {
         this.router = router;
         this.vehicleRepository = vehicleRepository;
         this.locationRepository = locationRepository;
         this.routingPlanEvent = routingPlanEvent;
+        this.trackCache = new TrackCache(routeProperties.getTrackCacheMaxPoints());
         bestRoutingPlan = RoutingPlan.empty();
     }
 
@@ -104,11 +114,20 @@ public class RouteListener {
                     new ArrayList<>(visitMap.values()),
                     routes);
             routingPlanEvent.fire(bestRoutingPlan);
+            logTrackCacheStats();
         } catch (IllegalStateException e) {
             logger.warn("Discarding an outdated routing plan: {}", e.toString());
         }
     }
 
+    public void onLocationRemoved(@Observes LocationRemovedEvent event) {
+        if (event.locationId().isPresent()) {
+            trackCache.invalidate(event.locationId().get());
+        } else {
+            trackCache.invalidateAll();
+        }
+    }
+
     private Vehicle findVehicleById(long id) {
         return vehicleRepository.find(id).orElseThrow(() -> new IllegalStateException(
                 "Vehicle {id=" + id + "} not found in the repository"));
@@ -131,13 +150,37 @@ public class RouteListener {
         for (int i = 0; i < itinerary.size() - 1; i++) {
             Location fromLocation = itinerary.get(i);
             Location toLocation = itinerary.get(i + 1);
-            List<Coordinates> path = router.getPath(fromLocation.coordinates(), toLocation.coordinates());
-            paths.add(path);
+            // Most legs don't change between two consecutive best solutions so only new legs are routed.
+            paths.add(trackCache.path(fromLocation, toLocation, router::getPath));
         }
         return paths;
     }
 
+    /**
+     * Log statistics of the track cache, which remembers paths of route legs so that they're not routed repeatedly.
+     * Statistics are logged at most once per {@link #TRACK_CACHE_STATS_INTERVAL}.
+     */
+    private void logTrackCacheStats() {
+        Instant now = Instant.now();
+        if (Duration.between(trackCacheStatsLogged, now).compareTo(TRACK_CACHE_STATS_INTERVAL) < 0) {
+            return;
+        }
+        trackCacheStatsLogged = now;
+        CacheStats stats = trackCache.stats();
+        logger.info("Track cache: {} legs, {} hits, {} misses (hit rate {}), {} evictions",
+                trackCache.size(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
     public RoutingPlan getBestRoutingPlan() {
         return bestRoutingPlan;
     }
+
+    /**
+     * Statistics of the track cache, which remembers paths of route legs so that they're not routed repeatedly.
+     *
+     * @return hit, miss and eviction counts of the track cache
+     */
+    public CacheStats getTrackCacheStats() {
+        return trackCache.stats();
+    }
 }
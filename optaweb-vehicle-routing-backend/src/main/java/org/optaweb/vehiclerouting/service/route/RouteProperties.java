@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import io.quarkus.arc.config.ConfigProperties;
+
+@ConfigProperties(prefix = "app.route")
+public class RouteProperties {
+
+    /**
+     * Maximum total number of points of all route leg geometries kept in the track cache.
+     */
+    private long trackCacheMaxPoints = 1_000_000;
+
+    public long getTrackCacheMaxPoints() {
+        return trackCacheMaxPoints;
+    }
+
+    public void setTrackCacheMaxPoints(long trackCacheMaxPoints) {
+        this.trackCacheMaxPoints = trackCacheMaxPoints;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded cache of route leg geometries keyed by the IDs of the leg's start and end location.
+ * The cache is bounded by the total number of points of all cached legs because the size of a leg's geometry
+ * varies from a few points to thousands of points.
+ * <p>
+ * A cached path is only used if both locations still have the coordinates the path was calculated for,
+ * so an updated location is routed again. Legs of removed locations should be {@link #invalidate invalidated}.
+ */
+class TrackCache {
+
+    private final Cache<LegKey, Leg> cache;
+    // Counted here instead of by the cache because a cached leg whose location has moved is a miss.
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    TrackCache(long maxPoints) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxPoints)
+                .weigher((LegKey key, Leg leg) -> leg.path.size())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the path between two locations, calculating it only if it's not in the cache.
+     *
+     * @param from leg start
+     * @param to leg end
+     * @param router calculates the path on a cache miss
+     * @return path from {@code from} to {@code to}
+     */
+    List<Coordinates> path(Location from, Location to, BiFunction<Coordinates, Coordinates, List<Coordinates>> router) {
+        LegKey key = new LegKey(from.id(), to.id());
+        Leg leg = cache.getIfPresent(key);
+        if (leg != null && leg.connects(from.coordinates(), to.coordinates())) {
+            hitCount.increment();
+            return leg.path;
+        }
+        missCount.increment();
+        leg = new Leg(from.coordinates(), to.coordinates(), router.apply(from.coordinates(), to.coordinates()));
+        cache.put(key, leg);
+        return leg.path;
+    }
+
+    /**
+     * Forget all legs that start or end at the given location.
+     *
+     * @param locationId location ID
+     */
+    void invalidate(long locationId) {
+        cache.asMap().keySet().removeIf(key -> key.fromId == locationId || key.toId == locationId);
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Cache statistics. Only hit, miss and eviction counts are recorded.
+     *
+     * @return snapshot of the statistics
+     */
+    CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, cache.stats().evictionCount());
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    private static final class LegKey {
+
+        private final long fromId;
+        private final long toId;
+
+        private LegKey(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            LegKey legKey = (LegKey) o;
+            return fromId == legKey.fromId && toId == legKey.toId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fromId, toId);
+        }
+    }
+
+    private static final class Leg {
+
+        private final Coordinates from;
+        private final Coordinates to;
+        private final List<Coordinates> path;
+
+        private Leg(Coordinates from, Coordinates to, List<Coordinates> path) {
+            this.from = from;
+            this.to = to;
+            this.path = path;
+        }
+
+        private boolean connects(Coordinates from, Coordinates to) {
+            return this.from.equals(from) && this.to.equals(to);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.event.Event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.Vehicle;
+import org.optaweb.vehiclerouting.domain.VehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.error.ErrorEvent;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@ExtendWith(MockitoExtension.class)
+class RouteOptimizerImplTest {
+
+    private static final String SOLVER_CONFIG = "org/optaweb/vehiclerouting/solver/vehicleRoutingSolverConfig.xml";
+    private static final int VISIT_COUNT = 8;
+
+    @Mock
+    private RouteChangedEventPublisher routeChangedEventPublisher;
+    @Mock
+    private Event<ErrorEvent> errorEvent;
+
+    private final ListeningExecutorService executor =
+            MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    private final List<Location> locations = new ArrayList<>();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_restore_last_routes_when_solver_restarts() throws InterruptedException {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(SOLVER_CONFIG);
+        solverConfig.setDaemon(true);
+        Solver<VehicleRoutingSolution> solver = SolverFactory.<VehicleRoutingSolution> create(solverConfig)
+                .buildSolver();
+        // Record the routes of each solution the solver starts with and of the last published best solution.
+        List<List<Long>> initialRoutes = new ArrayList<>();
+        SolverManager solverManager = new SolverManager(
+                solver, executor, routeChangedEventPublisher, errorEvent, new PlannerProperties()) {
+            @Override
+            void startSolver(VehicleRoutingSolution solution) {
+                initialRoutes.add(route(solution.getVehicleList().get(0)));
+                super.startSolver(solution);
+            }
+        };
+        RouteOptimizerImpl routeOptimizer = new RouteOptimizerImpl(solverManager, routeChangedEventPublisher);
+        AtomicReference<List<Long>> lastRoute = new AtomicReference<>();
+        CountDownLatch allVisitsRouted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            VehicleRoutingSolution solution = invocation.getArgument(0);
+            if (solution.getVehicleList().size() == 1) {
+                List<Long> route = route(solution.getVehicleList().get(0));
+                lastRoute.set(route);
+                if (route.size() == VISIT_COUNT) {
+                    allVisitsRouted.countDown();
+                }
+            }
+            return null;
+        }).when(routeChangedEventPublisher).publishSolution(any());
+
+        routeOptimizer.addLocation(location(0, 0), row(0));
+        List<Location> visits = new ArrayList<>();
+        List<DistanceMatrixRow> rows = new ArrayList<>();
+        for (int i = 1; i <= VISIT_COUNT; i++) {
+            visits.add(location(i % 3, i / 3));
+            rows.add(row(i));
+        }
+        routeOptimizer.addLocations(visits, rows);
+
+        // Start, stop and restart the solver.
+        routeOptimizer.addVehicle(vehicle(1));
+        assertThat(allVisitsRouted.await(30, TimeUnit.SECONDS)).isTrue();
+        routeOptimizer.removeVehicle(vehicle(1));
+        List<Long> routeBeforeStop = lastRoute.get();
+        assertThat(routeBeforeStop).hasSize(VISIT_COUNT);
+        Location removedVisit = locations.get(3);
+        routeOptimizer.removeLocation(removedVisit);
+        routeOptimizer.addVehicle(vehicle(2));
+
+        // The new vehicle takes over the removed vehicle's route, without the removed visit.
+        List<Long> expectedRoute = new ArrayList<>(routeBeforeStop);
+        expectedRoute.remove(Long.valueOf(removedVisit.id()));
+        assertThat(initialRoutes).hasSize(2);
+        assertThat(initialRoutes.get(0)).isEmpty();
+        assertThat(initialRoutes.get(1)).containsExactlyElementsOf(expectedRoute);
+
+        routeOptimizer.removeAllVehicles();
+    }
+
+    private Location location(double latitude, double longitude) {
+        Location location = new Location(locations.size() + 1, Coordinates.valueOf(latitude, longitude), "");
+        locations.add(location);
+        return location;
+    }
+
+    /**
+     * Distances are Manhattan distances of the coordinates, in seconds, so that each route has a different cost.
+     */
+    private DistanceMatrixRow row(int index) {
+        return new DistanceMatrixRow() {
+            @Override
+            public long millisTo(long locationId) {
+                return millisToIndex((int) locationId - 1);
+            }
+
+            @Override
+            public int index() {
+                return index;
+            }
+
+            @Override
+            public long millisToIndex(int locationIndex) {
+                Coordinates from = locations.get(index).coordinates();
+                Coordinates to = locations.get(locationIndex).coordinates();
+                return 1000 * (Math.abs(from.latitude().subtract(to.latitude()).longValue())
+                        + Math.abs(from.longitude().subtract(to.longitude()).longValue()));
+            }
+        };
+    }
+
+    private static Vehicle vehicle(long id) {
+        return VehicleFactory.createVehicle(id, "Vehicle " + id, VISIT_COUNT, new HashSet<>());
+    }
+
+    private static List<Long> route(PlanningVehicle vehicle) {
+        List<Long> route = new ArrayList<>();
+        for (PlanningVisit visit : vehicle.getFutureVisits()) {
+            route.add(visit.getId());
+        }
+        return route;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.enterprise.event.Event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.error.ErrorEvent;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@ExtendWith(MockitoExtension.class)
+class SolverManagerTest {
+
+    @Mock
+    private Solver<VehicleRoutingSolution> solver;
+    @Mock
+    private RouteChangedEventPublisher routeChangedEventPublisher;
+    @Mock
+    private Event<ErrorEvent> errorEvent;
+
+    private final ListeningExecutorService executor =
+            MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void pending_removal_should_complete_when_solver_fails()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        CountDownLatch visitRemoved = new CountDownLatch(1);
+        when(solver.solve(any())).thenAnswer(invocation -> {
+            visitRemoved.await();
+            throw new IllegalStateException("Solver failure");
+        });
+        SolverManager solverManager = new SolverManager(
+                solver, executor, routeChangedEventPublisher, errorEvent, new PlannerProperties());
+        PlanningVisit visit = PlanningVisitFactory.testVisit(1);
+
+        solverManager.startSolver(SolutionFactory.emptySolution());
+        CompletableFuture<Void> removed = solverManager.removeVisit(visit);
+        assertThat(removed).isNotDone();
+        visitRemoved.countDown();
+
+        removed.get(10, TimeUnit.SECONDS);
+        solverManager.shutdown();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.Standstill;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+class VehicleRoutingIncrementalScoreCalculatorTest {
+
+    private static final String SOLVER_CONFIG = "org/optaweb/vehiclerouting/solver/vehicleRoutingSolverConfig.xml";
+    private static final int STEP_COUNT_LIMIT = 300;
+    // Vehicle skills are A and B. Nobody has C, so visits that require it always break the skill constraint.
+    private static final List<String> REQUIRED_SKILLS = Arrays.asList("A", "B", "C");
+
+    @Test
+    void incremental_score_should_match_constraint_streams_while_solving() {
+        for (long seed = 0; seed < 3; seed++) {
+            // Total capacity is lower than the total demand so capacity is always exceeded.
+            VehicleRoutingSolution problem = problem(seed, 20, 3, 5);
+
+            // FULL_ASSERT compares the incremental score with the constraint streams score after every move.
+            SolverConfig solverConfig = solverConfig(true);
+            solverConfig.setEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+            ScoreDirectorFactoryConfig scoreConfig = solverConfig.getScoreDirectorFactoryConfig();
+            scoreConfig.setAssertionScoreDirectorFactory(solverConfig(false).getScoreDirectorFactoryConfig());
+            // A step count limit is only allowed as a phase termination.
+            for (PhaseConfig<?> phaseConfig : solverConfig.getPhaseConfigList()) {
+                if (phaseConfig instanceof LocalSearchPhaseConfig) {
+                    TerminationConfig terminationConfig = new TerminationConfig();
+                    terminationConfig.setStepCountLimit(STEP_COUNT_LIMIT);
+                    phaseConfig.setTerminationConfig(terminationConfig);
+                }
+            }
+
+            SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory.create(solverConfig);
+            VehicleRoutingSolution solution = solverFactory.buildSolver().solve(problem);
+
+            HardSoftLongScore score = assertSameScore(solution);
+            assertThat(score.getInitScore()).isZero();
+            assertThat(score.getHardScore()).isLessThan(0);
+        }
+    }
+
+    @Test
+    void incremental_score_should_match_constraint_streams_with_unassigned_visits() {
+        VehicleRoutingSolution solution = problem(7, 10, 2, 3);
+        List<PlanningVehicle> vehicles = solution.getVehicleList();
+        List<PlanningVisit> visits = solution.getVisitList();
+        // Vehicle 1 is over capacity (at least 4 > 3) and its third visit requires C.
+        // Vehicle 2 has one visit and the rest are unassigned.
+        chain(vehicles.get(0), visits.subList(0, 4));
+        chain(vehicles.get(1), visits.subList(4, 5));
+
+        HardSoftLongScore score = assertSameScore(solution);
+        assertThat(score.getInitScore()).isEqualTo(-5);
+        assertThat(score.getHardScore()).isLessThan(0);
+        assertThat(score.getSoftScore()).isLessThan(0);
+    }
+
+    @Test
+    void incremental_score_should_match_constraint_streams_with_no_assigned_visits() {
+        VehicleRoutingSolution solution = problem(3, 5, 2, 3);
+
+        HardSoftLongScore score = assertSameScore(solution);
+        assertThat(score.getInitScore()).isEqualTo(-5);
+        assertThat(score.getHardScore()).isZero();
+        assertThat(score.getSoftScore()).isZero();
+    }
+
+    private static HardSoftLongScore assertSameScore(VehicleRoutingSolution solution) {
+        HardSoftLongScore incrementalScore = scoreManager(true).updateScore(solution);
+        HardSoftLongScore constraintStreamsScore = scoreManager(false).updateScore(solution);
+        assertThat(incrementalScore).isEqualTo(constraintStreamsScore);
+        return incrementalScore;
+    }
+
+    private static ScoreManager<VehicleRoutingSolution, HardSoftLongScore> scoreManager(boolean incremental) {
+        return ScoreManager.create(SolverFactory.create(solverConfig(incremental)));
+    }
+
+    private static SolverConfig solverConfig(boolean incremental) {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(SOLVER_CONFIG);
+        if (incremental) {
+            // The same switch as app.planner.score-calculation=incremental.
+            ScoreDirectorFactoryConfig scoreConfig = solverConfig.getScoreDirectorFactoryConfig().copyConfig();
+            scoreConfig.setConstraintProviderClass(null);
+            scoreConfig.setIncrementalScoreCalculatorClass(VehicleRoutingIncrementalScoreCalculator.class);
+            solverConfig.setScoreDirectorFactoryConfig(scoreConfig);
+        }
+        return solverConfig;
+    }
+
+    /**
+     * Create a problem with visits scattered around a depot. Each visit has a demand of 1 to 3 and cycles through
+     * the {@link #REQUIRED_SKILLS required skills}. Vehicles cycle through the skill sets {A}, {B} and {A, B}.
+     */
+    private static VehicleRoutingSolution problem(long seed, int visitCount, int vehicleCount, int capacity) {
+        Random random = new Random(seed);
+        PlanningDepot depot = new PlanningDepot(location(0, 50, 4, "depot"));
+        List<PlanningVehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            HashSet<String> skillSet = new HashSet<>();
+            if (i % 3 != 1) {
+                skillSet.add("A");
+            }
+            if (i % 3 != 0) {
+                skillSet.add("B");
+            }
+            vehicles.add(PlanningVehicleFactory.testVehicle(i + 1, capacity, skillSet));
+        }
+        List<PlanningVisit> visits = new ArrayList<>();
+        for (int i = 0; i < visitCount; i++) {
+            String requiredSkill = REQUIRED_SKILLS.get(i % REQUIRED_SKILLS.size());
+            PlanningLocation location = location(
+                    i + 1,
+                    50 + random.nextDouble() - 0.5,
+                    4 + random.nextDouble() - 0.5,
+                    requiredSkill);
+            visits.add(PlanningVisitFactory.fromLocation(location, 1 + random.nextInt(3), requiredSkill));
+        }
+        return SolutionFactory.solutionFromVisits(vehicles, depot, visits);
+    }
+
+    /**
+     * Create a location whose distance to other locations is an asymmetric function of their coordinates
+     * so that the direction of travel matters.
+     */
+    private static PlanningLocation location(long id, double latitude, double longitude, String requiredSkill) {
+        return PlanningLocationFactory.fromDomain(
+                new Location(id, Coordinates.valueOf(latitude, longitude), requiredSkill),
+                other -> Math.round(1000 * Math.abs(other.getLatitude() - latitude))
+                        + Math.round(700 * Math.abs(other.getLongitude() - longitude))
+                        + (other.getLatitude() > latitude ? 10 : 0));
+    }
+
+    /**
+     * Initialize the visits as a chain of the vehicle, including the shadow variables,
+     * which the score director doesn't recalculate.
+     */
+    private static void chain(PlanningVehicle vehicle, List<PlanningVisit> visits) {
+        Standstill previousStandstill = vehicle;
+        for (PlanningVisit visit : visits) {
+            visit.setPreviousStandstill(previousStandstill);
+            previousStandstill.setNextVisit(visit);
+            visit.setVehicle(vehicle);
+            visit.setPreviousLegDistance(visit.distanceFromPreviousStandstill());
+            visit.setReturnLegDistance(visit.distanceToDepot());
+            previousStandstill = visit;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import javax.ws.rs.BadRequestException;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.LocationData;
+
+class LocationCsvReaderTest {
+
+    private static List<LocationData> read(String csv) {
+        return LocationCsvReader.read(new StringReader(csv));
+    }
+
+    @Test
+    void should_read_all_four_columns() {
+        List<LocationData> locations = read("50.1,4.1,refrigerator,Shop\n-33.5,151.25,,Warehouse\n");
+
+        assertThat(locations).hasSize(2);
+        assertThat(locations.get(0).coordinates().latitude()).isEqualByComparingTo(new BigDecimal("50.1"));
+        assertThat(locations.get(0).coordinates().longitude()).isEqualByComparingTo(new BigDecimal("4.1"));
+        assertThat(locations.get(0).requiredSkill()).isEqualTo("refrigerator");
+        assertThat(locations.get(0).description()).isEqualTo("Shop");
+        assertThat(locations.get(1).coordinates().latitude()).isEqualByComparingTo(new BigDecimal("-33.5"));
+        assertThat(locations.get(1).requiredSkill()).isEmpty();
+        assertThat(locations.get(1).description()).isEqualTo("Warehouse");
+    }
+
+    @Test
+    void last_two_columns_should_be_optional() {
+        List<LocationData> locations = read("50.1,4.1\n50.2,4.2,refrigerator\n");
+
+        assertThat(locations).hasSize(2);
+        assertThat(locations.get(0).requiredSkill()).isEmpty();
+        assertThat(locations.get(0).description()).isEmpty();
+        assertThat(locations.get(1).requiredSkill()).isEqualTo("refrigerator");
+        assertThat(locations.get(1).description()).isEmpty();
+    }
+
+    @Test
+    void header_should_be_optional() {
+        assertThat(read("lat,lng,requiredSkill,description\n50.1,4.1,,Shop\n")).hasSize(1);
+        assertThat(read("Latitude,Longitude\n50.1,4.1\n")).hasSize(1);
+        assertThat(read("50.1,4.1,,Shop\n")).hasSize(1);
+    }
+
+    @Test
+    void header_is_only_recognized_on_the_first_line() {
+        assertThatThrownBy(() -> read("50.1,4.1\nlat,lng\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Line 2");
+    }
+
+    @Test
+    void blank_lines_should_be_skipped() {
+        assertThat(read("\n50.1,4.1\n   \n50.2,4.2\n\n")).hasSize(2);
+        assertThat(read("")).isEmpty();
+    }
+
+    @Test
+    void quoted_fields_may_contain_commas_and_escaped_quotes() {
+        List<LocationData> locations = read("50.1,4.1,\"a,b\",\"Joe's \"\"Best\"\" Coffee, Inc.\"\n");
+
+        assertThat(locations).hasSize(1);
+        assertThat(locations.get(0).requiredSkill()).isEqualTo("a,b");
+        assertThat(locations.get(0).description()).isEqualTo("Joe's \"Best\" Coffee, Inc.");
+    }
+
+    @Test
+    void empty_quoted_field_should_be_empty() {
+        List<LocationData> locations = read("\"50.1\",\"4.1\",\"\",\"\"\"\"\n");
+
+        assertThat(locations.get(0).coordinates().latitude()).isEqualByComparingTo(new BigDecimal("50.1"));
+        assertThat(locations.get(0).requiredSkill()).isEmpty();
+        assertThat(locations.get(0).description()).isEqualTo("\"");
+    }
+
+    @Test
+    void should_fail_on_unterminated_quote() {
+        assertThatThrownBy(() -> read("50.1,4.1\n50.2,4.2,,\"Shop\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Line 2")
+                .hasMessageContaining("unterminated");
+    }
+
+    @Test
+    void should_fail_on_too_few_or_too_many_columns() {
+        assertThatThrownBy(() -> read("50.1\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Line 1")
+                .hasMessageContaining("1 fields");
+        assertThatThrownBy(() -> read("lat,lng\n50.1,4.1\n50.2,4.2,skill,description,extra\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Line 3")
+                .hasMessageContaining("5 fields");
+    }
+
+    @Test
+    void should_fail_on_invalid_coordinates() {
+        assertThatThrownBy(() -> read("50.1,4.1\n\n50.x,4.2\n"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Line 3")
+                .hasMessageContaining("invalid coordinates");
+    }
+}
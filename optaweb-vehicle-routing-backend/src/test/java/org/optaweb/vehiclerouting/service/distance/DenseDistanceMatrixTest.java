@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.optaweb.vehiclerouting.service.distance.DenseDistanceMatrix.NO_INDEX;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DenseDistanceMatrixTest {
+
+    @Test
+    void indexes_should_be_dense_and_stable() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        assertThat(matrix.addLocation(100)).isZero();
+        assertThat(matrix.addLocation(7)).isEqualTo(1);
+        assertThat(matrix.addLocation(-3)).isEqualTo(2);
+        // adding a known location returns its index
+        assertThat(matrix.addLocation(7)).isEqualTo(1);
+
+        assertThat(matrix.size()).isEqualTo(3);
+        assertThat(matrix.indexOf(100)).isZero();
+        assertThat(matrix.indexOf(7)).isEqualTo(1);
+        assertThat(matrix.indexOf(-3)).isEqualTo(2);
+        assertThat(matrix.indexOf(8)).isEqualTo(NO_INDEX);
+        assertThat(matrix.locationIds()).containsExactlyInAnyOrder(100L, 7L, -3L);
+    }
+
+    @Test
+    void location_index_should_resolve_colliding_keys_after_growing() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        // Keys that are multiples of a large power of two tend to collide in a small table.
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            ids.add(i << 32);
+        }
+        ids.forEach(matrix::addLocation);
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(matrix.indexOf(ids.get(i))).isEqualTo(i);
+        }
+        assertThat(matrix.indexOf(1000L << 32)).isEqualTo(NO_INDEX);
+        assertThat(matrix.size()).isEqualTo(ids.size());
+        assertThat(matrix.locationIds()).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void cells_should_survive_growth() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        int size = 100;
+        for (int i = 0; i < size; i++) {
+            matrix.addLocation(i);
+            for (int j = 0; j <= i; j++) {
+                matrix.set(i, j, 1000L * i + j);
+                matrix.set(j, i, 1000L * j + i);
+            }
+        }
+        assertThat(matrix.capacity()).isGreaterThanOrEqualTo(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                assertThat(matrix.get(i, j)).isEqualTo(1000L * i + j);
+            }
+        }
+    }
+
+    @Test
+    void set_row_should_write_all_cells_of_the_row() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        matrix.addLocation(1);
+        matrix.addLocation(2);
+        matrix.addLocation(3);
+        matrix.setRow(1, new long[] { 10, 0, 12 });
+
+        assertThat(matrix.get(1, 0)).isEqualTo(10);
+        assertThat(matrix.get(1, 1)).isZero();
+        assertThat(matrix.get(1, 2)).isEqualTo(12);
+        assertThat(matrix.get(0, 1)).isZero();
+    }
+
+    @Test
+    void should_grow_up_to_max_capacity() {
+        int maxCapacity = 20;
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false, maxCapacity);
+        for (int i = 0; i < maxCapacity; i++) {
+            assertThat(matrix.addLocation(i)).isEqualTo(i);
+        }
+        assertThat(matrix.capacity()).isEqualTo(maxCapacity);
+        assertThatIllegalStateException()
+                .isThrownBy(() -> matrix.addLocation(maxCapacity))
+                .withMessageContaining(String.valueOf(maxCapacity));
+        // The failed addition didn't change the matrix.
+        assertThat(matrix.size()).isEqualTo(maxCapacity);
+        assertThat(matrix.indexOf(maxCapacity)).isEqualTo(NO_INDEX);
+    }
+
+    @Test
+    void max_capacity_should_be_limited_by_array_size() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new DenseDistanceMatrix(false, DenseDistanceMatrix.MAX_CAPACITY + 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DenseDistanceMatrix(false, 0));
+    }
+
+    @Test
+    void removed_index_should_not_be_reused_until_released() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        matrix.addLocation(1);
+        matrix.addLocation(2);
+        matrix.set(0, 1, 5);
+        matrix.set(1, 0, 6);
+        int generation = matrix.generationOf(1);
+
+        assertThat(matrix.removeLocation(2)).isEqualTo(1);
+        assertThat(matrix.indexOf(2)).isEqualTo(NO_INDEX);
+        assertThat(matrix.size()).isEqualTo(1);
+        assertThat(matrix.removeLocation(2)).isEqualTo(NO_INDEX);
+
+        // A retired index isn't reused and its cells are kept for stale readers.
+        assertThat(matrix.addLocation(3)).isEqualTo(2);
+        assertThat(matrix.get(0, 1)).isEqualTo(5);
+        assertThat(matrix.get(1, 0)).isEqualTo(6);
+        assertThat(matrix.generationOf(1)).isEqualTo(generation);
+
+        // A released index is reused by the next new location, with its row and column cleared.
+        matrix.releaseIndex(1);
+        assertThat(matrix.addLocation(4)).isEqualTo(1);
+        assertThat(matrix.indexOf(4)).isEqualTo(1);
+        assertThat(matrix.get(0, 1)).isZero();
+        assertThat(matrix.get(1, 0)).isZero();
+        assertThat(matrix.generationOf(1)).isNotEqualTo(generation);
+    }
+
+    @Test
+    void releasing_an_index_that_is_not_retired_should_do_nothing() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        matrix.addLocation(1);
+        matrix.addLocation(2);
+        matrix.removeLocation(2);
+        matrix.clear();
+
+        // The index was retired before the matrix was cleared.
+        matrix.releaseIndex(1);
+        matrix.releaseIndex(0);
+        assertThat(matrix.addLocation(10)).isZero();
+        assertThat(matrix.addLocation(20)).isEqualTo(1);
+        assertThat(matrix.addLocation(30)).isEqualTo(2);
+    }
+
+    @Test
+    void released_indexes_should_be_reused_in_release_order() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        for (int i = 0; i < 4; i++) {
+            matrix.addLocation(i);
+        }
+        matrix.removeLocation(1);
+        matrix.removeLocation(3);
+        matrix.releaseIndex(3);
+        matrix.releaseIndex(1);
+
+        assertThat(matrix.addLocation(10)).isEqualTo(3);
+        assertThat(matrix.addLocation(11)).isEqualTo(1);
+        assertThat(matrix.addLocation(12)).isEqualTo(4);
+    }
+
+    @Test
+    void compact_matrix_should_store_int_travel_times() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(true);
+        matrix.addLocation(1);
+        matrix.addLocation(2);
+        matrix.set(0, 1, Integer.MAX_VALUE);
+        matrix.setRow(1, new long[] { 123, 0 });
+
+        assertThat(matrix.isCompact()).isTrue();
+        assertThat(matrix.get(0, 1)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(matrix.get(1, 0)).isEqualTo(123);
+        assertThat(matrix.canStore(Integer.MAX_VALUE)).isTrue();
+        assertThat(matrix.canStore(Integer.MAX_VALUE + 1L)).isFalse();
+        assertThatThrownBy(() -> matrix.set(0, 1, Integer.MAX_VALUE + 1L))
+                .isInstanceOf(DistanceCalculationException.class);
+    }
+
+    @Test
+    void clear_should_remove_all_locations() {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        matrix.addLocation(1);
+        matrix.addLocation(2);
+        matrix.clear();
+
+        assertThat(matrix.size()).isZero();
+        assertThat(matrix.indexOf(1)).isEqualTo(NO_INDEX);
+        assertThat(matrix.locationIds()).isEmpty();
+        assertThat(matrix.addLocation(2)).isZero();
+    }
+}
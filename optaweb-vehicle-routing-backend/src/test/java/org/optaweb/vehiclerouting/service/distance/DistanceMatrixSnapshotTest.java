@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+
+class DistanceMatrixSnapshotTest {
+
+    private final Location location1 = new Location(1, Coordinates.valueOf(50.1, 4.1), "");
+    private final Location location2 = new Location(2, Coordinates.valueOf(50.2, 4.2), "");
+    private final Location location3 = new Location(3, Coordinates.valueOf(50.3, 4.3), "");
+    private final List<Location> locations = Arrays.asList(location1, location2, location3);
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve(DistanceMatrixSnapshot.FILE_NAME);
+    }
+
+    private static DenseDistanceMatrix matrix(boolean compact, List<Location> locations) {
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(compact);
+        locations.forEach(location -> matrix.addLocation(location.id()));
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                matrix.set(from, to, from == to ? 0 : 1000L * (from + 1) + to);
+            }
+        }
+        return matrix;
+    }
+
+    private static int[] sequentialIndexes(int size) {
+        int[] indexes = new int[size];
+        Arrays.setAll(indexes, i -> i);
+        return indexes;
+    }
+
+    @Test
+    void should_read_what_has_been_written() throws IOException {
+        DenseDistanceMatrix matrix = matrix(false, locations);
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix);
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(false);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isTrue();
+
+        assertThat(loaded.size()).isEqualTo(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            assertThat(loaded.indexOf(locations.get(i).id())).isEqualTo(i);
+            for (int j = 0; j < locations.size(); j++) {
+                assertThat(loaded.get(i, j)).isEqualTo(matrix.get(i, j));
+            }
+        }
+    }
+
+    @Test
+    void should_read_what_has_been_written_in_compact_mode() throws IOException {
+        DenseDistanceMatrix matrix = matrix(true, locations);
+        matrix.set(0, 1, Integer.MAX_VALUE);
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix);
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(true);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isTrue();
+
+        assertThat(loaded.get(0, 1)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(loaded.get(2, 1)).isEqualTo(matrix.get(2, 1));
+    }
+
+    @Test
+    void should_write_cells_in_the_order_of_location_ids() throws IOException {
+        // Location 3 has a lower index than location 2 in the matrix, e.g. because it reused a released index.
+        DenseDistanceMatrix matrix = new DenseDistanceMatrix(false);
+        matrix.addLocation(location1.id());
+        matrix.addLocation(location3.id());
+        matrix.addLocation(location2.id());
+        matrix.set(0, 1, 13);
+        matrix.set(0, 2, 12);
+        matrix.set(2, 1, 23);
+        matrix.set(1, 2, 32);
+        DistanceMatrixSnapshot.write(file, locations, new int[] { 0, 2, 1 }, matrix);
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(false);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isTrue();
+
+        // Loaded indexes follow the order of location IDs.
+        assertThat(loaded.get(0, 1)).isEqualTo(12);
+        assertThat(loaded.get(0, 2)).isEqualTo(13);
+        assertThat(loaded.get(1, 2)).isEqualTo(23);
+        assertThat(loaded.get(2, 1)).isEqualTo(32);
+    }
+
+    @Test
+    void should_reject_snapshot_of_different_locations() throws IOException {
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix(false, locations));
+
+        List<Location> otherIds = Arrays.asList(location1, location2, new Location(4, location3.coordinates(), ""));
+        List<Location> movedLocation = Arrays.asList(
+                location1, location2, new Location(3, Coordinates.valueOf(51, 5), ""));
+        List<Location> fewerLocations = Arrays.asList(location1, location2);
+
+        for (List<Location> current : Arrays.asList(otherIds, movedLocation, fewerLocations)) {
+            DenseDistanceMatrix loaded = new DenseDistanceMatrix(false);
+            assertThat(DistanceMatrixSnapshot.read(file, current, loaded)).isFalse();
+            assertThat(loaded.size()).isZero();
+        }
+    }
+
+    @Test
+    void should_reject_snapshot_with_different_cell_size() throws IOException {
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix(false, locations));
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(true);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isFalse();
+        assertThat(loaded.size()).isZero();
+    }
+
+    @Test
+    void should_reject_corrupt_snapshot() throws IOException {
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix(false, locations));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[0] = 'X';
+        Files.write(file, bytes);
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(false);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isFalse();
+        assertThat(loaded.size()).isZero();
+    }
+
+    @Test
+    void should_reject_truncated_snapshot() throws IOException {
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix(false, locations));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        DenseDistanceMatrix loaded = new DenseDistanceMatrix(false);
+        assertThat(DistanceMatrixSnapshot.read(file, locations, loaded)).isFalse();
+        assertThat(loaded.size()).isZero();
+    }
+
+    @Test
+    void should_replace_existing_snapshot() throws IOException {
+        Files.write(file, new byte[] { 1, 2, 3 });
+        DistanceMatrixSnapshot.write(file, locations, sequentialIndexes(locations.size()), matrix(false, locations));
+
+        assertThat(DistanceMatrixSnapshot.read(file, locations, new DenseDistanceMatrix(false))).isTrue();
+        assertThat(tempDir.resolve(DistanceMatrixSnapshot.FILE_NAME + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    void fingerprint_should_depend_on_ids_and_coordinates() {
+        long fingerprint = DistanceMatrixSnapshot.fingerprint(locations);
+        assertThat(DistanceMatrixSnapshot.fingerprint(Arrays.asList(location1, location2, location3)))
+                .isEqualTo(fingerprint);
+        assertThat(DistanceMatrixSnapshot.fingerprint(Arrays.asList(
+                location1, location2, new Location(4, location3.coordinates(), ""))))
+                        .isNotEqualTo(fingerprint);
+        assertThat(DistanceMatrixSnapshot.fingerprint(Arrays.asList(
+                location1, location2, new Location(3, Coordinates.valueOf(50.3, 4.31), ""))))
+                        .isNotEqualTo(fingerprint);
+    }
+}
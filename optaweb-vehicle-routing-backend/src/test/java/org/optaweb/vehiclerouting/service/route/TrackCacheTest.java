@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+
+import com.google.common.cache.CacheStats;
+
+class TrackCacheTest {
+
+    private final Location location1 = new Location(1, Coordinates.valueOf(50.1, 4.1), "");
+    private final Location location2 = new Location(2, Coordinates.valueOf(50.2, 4.2), "");
+
+    private final AtomicInteger routerCalls = new AtomicInteger();
+    private final BiFunction<Coordinates, Coordinates, List<Coordinates>> router = (from, to) -> {
+        routerCalls.incrementAndGet();
+        return Arrays.asList(from, to);
+    };
+
+    @Test
+    void should_route_leg_once() {
+        TrackCache trackCache = new TrackCache(100);
+
+        assertThat(trackCache.path(location1, location2, router))
+                .containsExactly(location1.coordinates(), location2.coordinates());
+        assertThat(trackCache.path(location1, location2, router))
+                .containsExactly(location1.coordinates(), location2.coordinates());
+
+        assertThat(routerCalls).hasValue(1);
+        CacheStats stats = trackCache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void moved_location_should_be_routed_again_and_counted_as_miss() {
+        TrackCache trackCache = new TrackCache(100);
+        Location movedLocation2 = new Location(2, Coordinates.valueOf(50.5, 4.5), "");
+
+        trackCache.path(location1, location2, router);
+        assertThat(trackCache.path(location1, movedLocation2, router))
+                .containsExactly(location1.coordinates(), movedLocation2.coordinates());
+
+        assertThat(routerCalls).hasValue(2);
+        CacheStats stats = trackCache.stats();
+        assertThat(stats.hitCount()).isZero();
+        assertThat(stats.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidated_leg_should_be_routed_again() {
+        TrackCache trackCache = new TrackCache(100);
+
+        trackCache.path(location1, location2, router);
+        trackCache.invalidate(location2.id());
+        trackCache.path(location1, location2, router);
+
+        assertThat(routerCalls).hasValue(2);
+        assertThat(trackCache.size()).isEqualTo(1);
+    }
+}
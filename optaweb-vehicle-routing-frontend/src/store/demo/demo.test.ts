@@ -101,6 +101,7 @@ const state: AppState = {
     demoName: null,
     isLoading: false,
   },
+  pendingLocations: [],
   plan: {
     distance: '10',
     vehicles: [vehicle1],
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import { clearRoute, deleteLocation } from '../route/actions';
+import * as actions from './actions';
+import reducer from './index';
+
+describe('Pending location reducer', () => {
+  it(
+    'should return initial state when previous state is undefined',
+    () => expect(reducer(undefined, actions.updateLocationStatus({ id: 1, status: 'READY' }))).toEqual([]),
+  );
+
+  it('pending location should be added once', () => {
+    expect(
+      reducer([1], actions.updateLocationStatus({ id: 2, status: 'PENDING' })),
+    ).toEqual([1, 2]);
+    expect(
+      reducer([1, 2], actions.updateLocationStatus({ id: 2, status: 'PENDING' })),
+    ).toEqual([1, 2]);
+  });
+
+  it('ready or failed location should no longer be pending', () => {
+    expect(
+      reducer([1, 2, 3], actions.updateLocationStatus({ id: 2, status: 'READY' })),
+    ).toEqual([1, 3]);
+    expect(
+      reducer([1, 3], actions.updateLocationStatus({ id: 1, status: 'FAILED' })),
+    ).toEqual([3]);
+  });
+
+  it('deleted location should no longer be pending', () => {
+    expect(reducer([1, 2], deleteLocation(1))).toEqual([2]);
+  });
+
+  it('clearing the route should clear pending locations', () => {
+    expect(reducer([1, 2], clearRoute())).toEqual([]);
+  });
+});
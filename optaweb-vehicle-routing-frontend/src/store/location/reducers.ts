@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import { ActionType as RouteActionType, ClearRouteAction, DeleteLocationAction } from '../route/types';
+import { ActionType, LocationAction } from './types';
+
+/**
+ * IDs of locations that have been created but are not in the routing plan yet because their distances
+ * are still being calculated.
+ */
+export const pendingLocationReducer = (
+  state: number[] = [],
+  action: LocationAction | DeleteLocationAction | ClearRouteAction,
+): number[] => {
+  switch (action.type) {
+    case ActionType.UPDATE_LOCATION_STATUS: {
+      const { id, status } = action.payload;
+      const otherLocations = state.filter((locationId) => locationId !== id);
+      return status === 'PENDING' ? [...otherLocations, id] : otherLocations;
+    }
+    case RouteActionType.DELETE_LOCATION: {
+      return state.filter((locationId) => locationId !== action.value);
+    }
+    case RouteActionType.CLEAR_SOLUTION: {
+      return [];
+    }
+    default:
+      return state;
+  }
+};
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import { Action } from 'redux';
+
+export enum ActionType {
+  UPDATE_LOCATION_STATUS = 'UPDATE_LOCATION_STATUS',
+}
+
+/**
+ * PENDING while the location's distances are being calculated, then READY when it has been added
+ * to the routing plan or FAILED when it has been discarded.
+ */
+export type LocationStatus = 'PENDING' | 'READY' | 'FAILED';
+
+export interface LocationStatusPayload {
+  readonly id: number;
+  readonly status: LocationStatus;
+}
+
+export interface UpdateLocationStatusAction extends Action<ActionType.UPDATE_LOCATION_STATUS> {
+  readonly payload: LocationStatusPayload;
+}
+
+export type LocationAction = UpdateLocationStatusAction;
@@ -19,12 +19,14 @@ import {
   ActionType,
   AddLocationAction,
   AddVehicleAction,
+  ApplyRouteDeltaAction,
   ClearRouteAction,
   DeleteLocationAction,
   UpdateLocationAction,
   DeleteVehicleAction,
   LatLngWithDescription,
   RoutingPlan,
+  RoutingPlanDelta,
   UpdateRouteAction,
 } from './types';
 
@@ -60,3 +62,8 @@ export const updateRoute: ActionFactory<RoutingPlan, UpdateRouteAction> = (plan)
   plan,
   type: ActionType.UPDATE_ROUTING_PLAN,
 });
+
+export const applyRouteDelta: ActionFactory<RoutingPlanDelta, ApplyRouteDeltaAction> = (delta) => ({
+  delta,
+  type: ActionType.APPLY_ROUTING_PLAN_DELTA,
+});
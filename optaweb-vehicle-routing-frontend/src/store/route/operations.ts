@@ -26,9 +26,10 @@ import {
   LatLngWithDescription,
   VehicleCapacity,
   LatLangWithId,
+  UpdateRouteAction,
 } from './types';
 
-export const { updateRoute } = actions;
+export const { updateRoute, applyRouteDelta } = actions;
 
 export const addLocation: ThunkCommandFactory<LatLngWithDescription, AddLocationAction> = (
   (location) => (dispatch, getState, client) => {
@@ -75,3 +76,11 @@ export const clearRoute: ThunkCommandFactory<void, ClearRouteAction> = (
     dispatch(actions.clearRoute());
     client.clear();
   });
+
+/**
+ * Replace the routing plan with a full snapshot from the server. Used when the client misses a delta update.
+ */
+export const refreshRoute: ThunkCommandFactory<void, UpdateRouteAction> = (
+  () => (dispatch, getState, client) => {
+    client.fetchRoutingPlan().then((plan) => dispatch(actions.updateRoute(plan)));
+  });
@@ -29,6 +29,17 @@ export const routeReducer = (state = initialRouteState, action: RouteAction): Ro
     case ActionType.UPDATE_ROUTING_PLAN: {
       return action.plan;
     }
+    case ActionType.APPLY_ROUTING_PLAN_DELTA: {
+      const { delta } = action;
+      return {
+        ...state,
+        sequence: delta.sequence,
+        distance: delta.distance,
+        routes: state.routes.map((route) => (
+          delta.routes.find((changedRoute) => changedRoute.vehicle.id === route.vehicle.id) || route
+        )),
+      };
+    }
     default:
       return state;
   }
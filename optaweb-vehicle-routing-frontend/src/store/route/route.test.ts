@@ -20,7 +20,7 @@ import { WebSocketConnectionStatus } from '../websocket/types';
 import * as actions from './actions';
 import reducer, { routeOperations } from './index';
 import { initialRouteState } from './reducers';
-import { LatLngWithDescription, Vehicle, VehicleCapacity } from './types';
+import { LatLngTuple, LatLngWithDescription, RoutingPlanDelta, Vehicle, VehicleCapacity } from './types';
 
 describe('Route operations', () => {
   it('clearRoute() should call client', () => {
@@ -136,6 +136,27 @@ describe('Route reducers', () => {
       reducer(initialRouteState, actions.updateRoute(state.plan)),
     ).toEqual(state.plan);
   });
+
+  it('apply route delta', () => {
+    const changedRoute = {
+      vehicle: vehicle2,
+      visits: [visit5, visit4],
+      track: [[0.51, 0.52], [0.41, 0.42]] as LatLngTuple[],
+    };
+    const delta: RoutingPlanDelta = {
+      sequence: 8,
+      distance: '9',
+      routes: [changedRoute],
+    };
+    expect(
+      reducer({ ...state.plan, sequence: 7 }, actions.applyRouteDelta(delta)),
+    ).toEqual({
+      ...state.plan,
+      sequence: 8,
+      distance: '9',
+      routes: [state.plan.routes[0], changedRoute],
+    });
+  });
 });
 
 const vehicle1: Vehicle = { id: 1, name: 'v1', capacity: 5, skillSet: ['any'] };
@@ -188,6 +209,7 @@ const state: AppState = {
     demoName: null,
     isLoading: false,
   },
+  pendingLocations: [],
   plan: {
     distance: '10',
     vehicles: [
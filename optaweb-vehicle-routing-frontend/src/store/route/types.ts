@@ -57,6 +57,8 @@ export interface RouteWithTrack extends Route {
 }
 
 export interface RoutingPlan {
+  // sequence number of the last applied update (undefined until the first update arrives)
+  readonly sequence?: number;
   readonly distance: string;
   readonly vehicles: Vehicle[];
   readonly depot: Location | null;
@@ -64,8 +66,18 @@ export interface RoutingPlan {
   readonly routes: RouteWithTrack[];
 }
 
+/**
+ * Routes that have changed since the update with the previous sequence number.
+ */
+export interface RoutingPlanDelta {
+  readonly sequence: number;
+  readonly distance: string;
+  readonly routes: RouteWithTrack[];
+}
+
 export enum ActionType {
   UPDATE_ROUTING_PLAN = 'UPDATE_ROUTING_PLAN',
+  APPLY_ROUTING_PLAN_DELTA = 'APPLY_ROUTING_PLAN_DELTA',
   DELETE_LOCATION = 'DELETE_LOCATION',
   ADD_LOCATION = 'ADD_LOCATION',
   UPDATE_LOCATION = 'UPDATE_LOCATION',
@@ -105,10 +117,15 @@ export interface UpdateRouteAction extends Action<ActionType.UPDATE_ROUTING_PLAN
   readonly plan: RoutingPlan;
 }
 
+export interface ApplyRouteDeltaAction extends Action<ActionType.APPLY_ROUTING_PLAN_DELTA> {
+  readonly delta: RoutingPlanDelta;
+}
+
 export type RouteAction =
   | AddLocationAction
   | AddVehicleAction
   | DeleteLocationAction
   | DeleteVehicleAction
   | UpdateRouteAction
+  | ApplyRouteDeltaAction
   | ClearRouteAction;
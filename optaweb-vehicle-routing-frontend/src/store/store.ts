@@ -23,6 +23,7 @@ import thunk from 'redux-thunk';
 import WebSocketClient from 'websocket/WebSocketClient';
 import clientReducer from './client';
 import demoReducer from './demo';
+import pendingLocationReducer from './location';
 import messageReducer from './message';
 import routeReducer from './route';
 import serverInfoReducer from './server';
@@ -52,6 +53,7 @@ export function configureStore(
     serverInfo: serverInfoReducer,
     demo: demoReducer,
     plan: routeReducer,
+    pendingLocations: pendingLocationReducer,
     userViewport: clientReducer,
   });
 
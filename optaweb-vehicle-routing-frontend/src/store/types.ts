@@ -58,6 +58,7 @@ export interface AppState {
   readonly serverInfo: ServerInfo;
   readonly messages: Message[];
   readonly plan: RoutingPlan;
+  readonly pendingLocations: number[];
   readonly connectionStatus: WebSocketConnectionStatus;
   readonly demo: Demo;
   readonly userViewport: UserViewport;
@@ -16,10 +16,12 @@
 
 import { demoOperations } from '../demo';
 import { FinishLoadingAction } from '../demo/types';
+import { locationActions } from '../location';
+import { UpdateLocationStatusAction } from '../location/types';
 import { messageActions } from '../message';
 import { MessageAction } from '../message/types';
 import { routeOperations } from '../route';
-import { UpdateRouteAction } from '../route/types';
+import { ApplyRouteDeltaAction, UpdateRouteAction } from '../route/types';
 import { serverOperations } from '../server';
 import { ServerInfoAction } from '../server/types';
 import { ThunkCommandFactory } from '../types';
@@ -30,7 +32,9 @@ type ConnectClientThunkAction =
   | WebSocketAction
   | MessageAction
   | UpdateRouteAction
+  | ApplyRouteDeltaAction
   | FinishLoadingAction
+  | UpdateLocationStatusAction
   | ServerInfoAction;
 
 /**
@@ -61,6 +65,22 @@ export const connectClient: ThunkCommandFactory<void, ConnectClientThunkAction>
             }
           }
         });
+        client.subscribeToLocationStatus((locationStatus) => {
+          dispatch(locationActions.updateLocationStatus(locationStatus));
+        });
+        client.subscribeToRouteDelta((delta) => {
+          const { sequence } = getState().plan;
+          if (sequence !== undefined && delta.sequence <= sequence) {
+            // outdated, the plan already contains this update
+            return;
+          }
+          if (sequence !== undefined && delta.sequence === sequence + 1) {
+            dispatch(routeOperations.applyRouteDelta(delta));
+          } else {
+            // an update has been missed so the delta can't be applied
+            dispatch(routeOperations.refreshRoute());
+          }
+        });
       },
       // on error, schedule a reconnection attempt
       (err) => {
@@ -18,10 +18,12 @@ import { MessagePayload } from 'store/message/types';
 import { resetViewport } from '../client/actions';
 import { UserViewport } from '../client/types';
 import { demoOperations } from '../demo';
+import { updateLocationStatus } from '../location/actions';
+import { LocationStatusPayload } from '../location/types';
 import { receiveMessage } from '../message/actions';
 import { mockStore } from '../mockStore';
 import { routeOperations } from '../route';
-import { RoutingPlan, Vehicle } from '../route/types';
+import { RoutingPlan, RoutingPlanDelta, Vehicle } from '../route/types';
 import { serverInfo } from '../server/actions';
 import { ServerInfo } from '../server/types';
 import { AppState } from '../types';
@@ -146,6 +148,46 @@ describe('WebSocket client operations', () => {
     ]);
   });
 
+  it('should apply route delta only if it follows the current plan', () => {
+    const { store, client } = mockStore({ ...state, plan: { ...emptyPlan, sequence: 3 } });
+
+    let successCallbackCapture: () => void = uninitializedCallbackCapture;
+    client.connect = jest.fn().mockImplementation((successCallback) => {
+      successCallbackCapture = successCallback;
+    });
+
+    let deltaSubscriptionCallback: (delta: RoutingPlanDelta) => void = uninitializedCallbackCapture;
+    client.subscribeToRouteDelta = jest.fn().mockImplementation((callback) => {
+      deltaSubscriptionCallback = callback;
+    });
+    client.fetchRoutingPlan = jest.fn().mockReturnValue(new Promise(() => {}));
+
+    // successfully connect the client
+    store.dispatch(websocketOperations.connectClient());
+    successCallbackCapture();
+    expect(client.subscribeToRouteDelta).toHaveBeenCalledTimes(1);
+
+    store.clearActions();
+
+    // the next delta is applied
+    const nextDelta: RoutingPlanDelta = { sequence: 4, distance: '1', routes: [] };
+    deltaSubscriptionCallback(nextDelta);
+    expect(store.getActions()).toEqual([routeOperations.applyRouteDelta(nextDelta)]);
+    expect(client.fetchRoutingPlan).not.toHaveBeenCalled();
+
+    store.clearActions();
+
+    // an outdated delta is ignored
+    deltaSubscriptionCallback({ sequence: 2, distance: '1', routes: [] });
+    expect(store.getActions()).toEqual([]);
+    expect(client.fetchRoutingPlan).not.toHaveBeenCalled();
+
+    // a gap in the sequence causes fetching the full plan
+    deltaSubscriptionCallback({ sequence: 6, distance: '1', routes: [] });
+    expect(store.getActions()).toEqual([]);
+    expect(client.fetchRoutingPlan).toHaveBeenCalledTimes(1);
+  });
+
   it('should dispatch server info and reset viewport', () => {
     const { store, client } = mockStore(state);
 
@@ -214,6 +256,38 @@ describe('WebSocket client operations', () => {
       receiveMessage(message),
     ]);
   });
+
+  it('should dispatch location status', () => {
+    const { store, client } = mockStore(state);
+
+    let successCallbackCapture: () => void = uninitializedCallbackCapture;
+    client.connect = jest.fn().mockImplementation((successCallback) => {
+      successCallbackCapture = successCallback;
+    });
+
+    let locationStatusSubscriptionCallback: (status: LocationStatusPayload) => void = uninitializedCallbackCapture;
+    client.subscribeToLocationStatus = jest.fn().mockImplementation((callback) => {
+      locationStatusSubscriptionCallback = callback;
+    });
+
+    // successfully connect the client
+    store.dispatch(websocketOperations.connectClient());
+    successCallbackCapture();
+
+    // should be subscribed location status topic
+    expect(client.subscribeToLocationStatus).toHaveBeenCalledTimes(1);
+
+    store.clearActions();
+
+    // when location status arrives
+    const locationStatus: LocationStatusPayload = { id: 7, status: 'PENDING' };
+    locationStatusSubscriptionCallback(locationStatus);
+
+    // action should be dispatched
+    expect(store.getActions()).toEqual([
+      updateLocationStatus(locationStatus),
+    ]);
+  });
 });
 
 describe('WebSocket reducers', () => {
@@ -299,6 +373,7 @@ const state: AppState = {
     demoName: null,
     isLoading: false,
   },
+  pendingLocations: [],
   plan: emptyPlan,
   userViewport,
 };
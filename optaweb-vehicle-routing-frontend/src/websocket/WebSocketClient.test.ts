@@ -54,6 +54,14 @@ describe('WebSocketClient', () => {
     expect(fetchMock).toHaveLastFetched(`${url}/location`, { body: location });
   });
 
+  it('fetchRoutingPlan() should get routing plan snapshot', () => {
+    fetchMock.getOnce('*', { sequence: 1 });
+
+    client.fetchRoutingPlan();
+
+    expect(fetchMock).toHaveLastFetched(`${url}/events/snapshot`);
+  });
+
   it('deleteLocation() should send location ID', () => {
     const locationId = 21;
     fetchMock.deleteOnce('*', 200);
@@ -143,6 +151,20 @@ describe('WebSocketClient', () => {
     expect(callback).toHaveBeenCalledWith(payload);
   });
 
+  it('subscribeToLocationStatus() should subscribe with callback', () => {
+    const callback = jest.fn();
+    const payload = { id: 1, status: 'PENDING' };
+    const messageEvent = new MessageEvent('locationStatus', {
+      data: JSON.stringify(payload),
+    });
+
+    client.subscribeToLocationStatus(callback);
+
+    source.emit(messageEvent.type, messageEvent);
+
+    expect(callback).toHaveBeenCalledWith(payload);
+  });
+
   it('subscribeToErrorTopic() should subscribe with callback', () => {
     const callback = jest.fn();
     const payload = { msg: 'test' };
@@ -14,8 +14,9 @@
  * limitations under the License.
  */
 
+import { LocationStatusPayload } from 'store/location/types';
 import { MessagePayload } from 'store/message/types';
-import { LatLangWithId, LatLngWithDescription, RoutingPlan } from 'store/route/types';
+import { LatLangWithId, LatLngWithDescription, RoutingPlan, RoutingPlanDelta } from 'store/route/types';
 import { ServerInfo } from 'store/server/types';
 
 export default class WebSocketClient {
@@ -102,6 +103,27 @@ export default class WebSocketClient {
     }
   }
 
+  subscribeToRouteDelta(subscriptionCallback: (delta: RoutingPlanDelta) => void): void {
+    if (this.eventSource !== null) {
+      this.eventSource.addEventListener('routeDelta', (event: MessageEvent) => {
+        subscriptionCallback(JSON.parse(event.data));
+      });
+    }
+  }
+
+  subscribeToLocationStatus(subscriptionCallback: (locationStatus: LocationStatusPayload) => void): void {
+    if (this.eventSource !== null) {
+      this.eventSource.addEventListener('locationStatus', (event: MessageEvent) => {
+        subscriptionCallback(JSON.parse(event.data));
+      });
+    }
+  }
+
+  fetchRoutingPlan(): Promise<RoutingPlan> {
+    return fetch(`${this.backendUrl}/events/snapshot`)
+      .then((response) => response.json());
+  }
+
   subscribeToErrorTopic(subscriptionCallback: (errorMessage: MessagePayload) => void): void {
     if (this.eventSource !== null) {
       this.eventSource.addEventListener('errorMessage', (event: MessageEvent) => {